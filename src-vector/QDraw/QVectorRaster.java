@@ -0,0 +1,154 @@
+// Bailey JT Brown
+// 2024
+// QVectorRaster.java
+
+package QDraw;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// NOTE:
+// - SIMD span kernels used by QViewer when vector rasterization is enabled.
+//   this is the only class which touches jdk.incubator.vector, so it's kept
+//   in its own source root and built into the same output as src:
+//     javac --add-modules jdk.incubator.vector -cp <out> -d <out>
+//           src-vector/QDraw/QVectorRaster.java
+// - QViewer only ever loads it by name. when it wasn't built, or the module
+//   isn't present at runtime, QViewer keeps using the scalar path
+// - every span is one row of a raster block, so LANES must match
+//   QViewer's RASTER_BLOCK_SIZE. spans are always done with 8 lane species,
+//   which are only used when the platform's preferred species is at least
+//   as wide, so they are never emulated with scalar code
+// - lane values are found as lane * step + start, with a separate multiply
+//   and add rather than fma, so every lane is bit identical to QViewer's
+//   scalar rasterizer
+final class QVectorRaster implements QSpanRaster {
+    /////////////////////////////////////////////////////////////////
+    // CONSTANTS
+    private static final VectorSpecies<Float>   FLOAT_SPECIES = FloatVector.SPECIES_256;
+    private static final VectorSpecies<Integer> INT_SPECIES   = IntVector.SPECIES_256;
+    private static final FloatVector LANE_OFFSETS = FloatVector.fromArray(
+        FLOAT_SPECIES,
+        new float[] { 0.0f, 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f, 7.0f },
+        0
+    );
+    private static final IntVector LANE_INDICIES = IntVector.fromArray(
+        INT_SPECIES,
+        new int[] { 0, 1, 2, 3, 4, 5, 6, 7 },
+        0
+    );
+    private static final FloatVector ONES = FloatVector.broadcast(FLOAT_SPECIES, 1.0f);
+
+    /////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    @Override
+    public boolean isSupported( ) {
+        return 
+            FloatVector.SPECIES_PREFERRED.length( ) >= LANES &&
+            IntVector.SPECIES_PREFERRED.length( )   >= LANES;
+    }
+
+    @Override
+    public int coverSpan(
+        int     e0,
+        int     e1,
+        int     e2,
+        int     stepE0,
+        int     stepE1,
+        int     stepE2,
+        boolean acceptAll,
+        int     laneStart,
+        int     laneEnd,
+        float   depthStart,
+        float   depthStep,
+        float   depthEpsilon,
+        boolean depthEqual,
+        float[] depthBuffer,
+        int     dataIndex,
+        float[] depthsOut,
+        int     depthsOffset
+    ) {
+        // NOTE:
+        // - returns a bitmask of every lane in [laneStart, laneEnd] which is
+        //   inside the triangle and passes the depth test. depth is only read
+        //   for those lanes, so lanes hanging off the buffer are never touched
+        // - edges are fixed point and already include the fill rule's bias,
+        //   so coverage is an exact integer test
+        // - when depthEqual is set, only depths exactly matching the stored
+        //   depth pass, for shading after a depth prepass
+        VectorMask<Integer> cover = 
+            INT_SPECIES.indexInRange(-laneStart, laneEnd - laneStart + 1);
+        if (!acceptAll) {
+            cover = cover
+                .and(LANE_INDICIES.mul(stepE0).add(e0).compare(VectorOperators.GE, 0))
+                .and(LANE_INDICIES.mul(stepE1).add(e1).compare(VectorOperators.GE, 0))
+                .and(LANE_INDICIES.mul(stepE2).add(e2).compare(VectorOperators.GE, 0));
+        }
+        if (!cover.anyTrue( )) { return 0; }
+        VectorMask<Float> mask = cover.cast(FLOAT_SPECIES);
+
+        // since all depths are negative and inverted, fragments pass when
+        // they are smaller than the stored depth
+        FloatVector depths = LANE_OFFSETS.mul(depthStep).add(depthStart);
+        FloatVector stored = FloatVector.fromArray(FLOAT_SPECIES, depthBuffer, dataIndex, mask);
+        if (depthEqual) {
+            mask = mask.and(depths.compare(VectorOperators.EQ, stored));
+        } else {
+            mask = mask.and(depths.compare(VectorOperators.LE, stored.sub(depthEpsilon)));
+        }
+        depths.intoArray(depthsOut, depthsOffset);
+
+        return (int)mask.toLong( );
+    }
+
+    @Override
+    public void interpolateSpan(
+        float[] rowPlanes,
+        float[] planeDX,
+        int     planeCount,
+        float[] lanePlanesOut,
+        int     outOffset
+    ) {
+        // NOTE:
+        // - lanePlanesOut is [plane][lane] from outOffset. plane 0 is left as
+        //   invZ and every other plane is divided by it, giving
+        //   perspective-correct inputs
+        FloatVector invZ = LANE_OFFSETS.mul(planeDX[0]).add(rowPlanes[0]);
+        invZ.intoArray(lanePlanesOut, outOffset);
+
+        FloatVector invW = ONES.div(invZ);
+        for (int plane = 1; plane < planeCount; plane++) {
+            LANE_OFFSETS
+                .mul(planeDX[plane])
+                .add(rowPlanes[plane])
+                .mul(invW)
+                .intoArray(lanePlanesOut, outOffset + plane * LANES);
+        }
+    }
+
+    @Override
+    public void storeSpanColor(
+        int[]   colors,
+        int     writeMask,
+        int[]   colorBuffer,
+        int     dataIndex
+    ) {
+        VectorMask<Integer> mask = VectorMask.fromLong(INT_SPECIES, writeMask);
+        IntVector.fromArray(INT_SPECIES, colors, 0).intoArray(colorBuffer, dataIndex, mask);
+    }
+
+    @Override
+    public void storeSpanDepth(
+        float[] depths,
+        int     depthsOffset,
+        int     writeMask,
+        float[] depthBuffer,
+        int     dataIndex
+    ) {
+        VectorMask<Float> mask = VectorMask.fromLong(FLOAT_SPECIES, writeMask);
+        FloatVector.fromArray(FLOAT_SPECIES, depths, depthsOffset).intoArray(depthBuffer, dataIndex, mask);
+    }
+}
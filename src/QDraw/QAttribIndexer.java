@@ -66,9 +66,31 @@ public final class QAttribIndexer {
         int           offsetOut,
         float[]       bufferOut
     ) {
-        int[] triIndicies = new int[INDICIES_PER_TRI];
-        getTriIndicies(0, triIndicies, triNum);
-        attribBuffer.getAttrib(offsetOut, bufferOut, triIndicies[vertNum]);
+        attribBuffer.getAttrib(
+            offsetOut, 
+            bufferOut, 
+            attribIndexBuffer[getTriBaseOffset(triNum) + vertNum]
+        );
+    }
+
+    public void indexBatch(
+        int[]     vertIndicies,
+        int       count,
+        float[][] componentsOut
+    ) {
+        // NOTE:
+        // - vertIndicies are offsets into the index buffer, not attribute
+        //   indicies. componentsOut is struct-of-arrays, one array per
+        //   component, each holding at least count values
+        float[] attribs        = attribBuffer.getBuffer( );
+        int     compsPerAttrib = attribBuffer.getComponentsPerAttrib( );
+        for (int comp = 0; comp < compsPerAttrib; comp++) {
+            float[] compOut = componentsOut[comp];
+            for (int i = 0; i < count; i++) {
+                int attribIndex = attribIndexBuffer[vertIndicies[i]];
+                compOut[i] = attribs[attribIndex * compsPerAttrib + comp];
+            }
+        }
     }
 
     /////////////////////////////////////////////////////////////////
@@ -0,0 +1,77 @@
+// Bailey JT Brown
+// 2024
+// QGBuffer.java
+
+package QDraw;
+
+import QDraw.QException.PointOfError;
+
+public final class QGBuffer {
+    /////////////////////////////////////////////////////////////////
+    // CONSTANTS
+    public static final int NO_MATERIAL   = -1;
+    public static final int POSITION_CMPS = 3;
+    public static final int NORMAL_CMPS   = 3;
+    public static final int UV_CMPS       = 2;
+
+    /////////////////////////////////////////////////////////////////
+    // PRIVATE MEMBERS
+    // NOTE:
+    // - every buffer is indexed the same as the render buffer it belongs
+    //   to, with each pixel's components stored contiguously. pixels which
+    //   have no material are not lit by the deferred lighting pass
+    // - lodBuffer holds the mip level each pixel's texture is sampled at,
+    //   as derivatives are only known while the pixel is rasterized
+    private float[] positionBuffer;
+    private float[] normalBuffer;
+    private float[] uvBuffer;
+    private float[] lodBuffer;
+    private int[]   materialBuffer;
+
+    /////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    public float[] getPositionData( ) {
+        return positionBuffer;
+    }
+
+    public float[] getNormalData( ) {
+        return normalBuffer;
+    }
+
+    public float[] getUVData( ) {
+        return uvBuffer;
+    }
+
+    public float[] getLODData( ) {
+        return lodBuffer;
+    }
+
+    public int[] getMaterialData( ) {
+        return materialBuffer;
+    }
+
+    public void clear( ) {
+        for (int i = 0; i < materialBuffer.length; i++) {
+            materialBuffer[i] = NO_MATERIAL;
+        }
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    public QGBuffer(int pixelCount) {
+        if (pixelCount <= 0) {
+            throw new QException(
+                PointOfError.InvalidParameter,
+                "pixelCount was <= 0"
+            );
+        }
+
+        positionBuffer = new float[pixelCount * POSITION_CMPS];
+        normalBuffer   = new float[pixelCount * NORMAL_CMPS];
+        uvBuffer       = new float[pixelCount * UV_CMPS];
+        lodBuffer      = new float[pixelCount];
+        materialBuffer = new int[pixelCount];
+
+        clear();
+    }
+}
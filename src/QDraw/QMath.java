@@ -74,6 +74,22 @@ public final class QMath extends QEncoding {
         return cross3(0, l_3, 0, r_3);
     }
 
+    public static void cross3(
+        float[] out_3, float[] l_3, float[] r_3
+    ) {
+        // NOTE:
+        //  out_3 may not be l_3 or r_3
+        out_3[VCTR_INDEX_X] = 
+            l_3[VCTR_INDEX_Y] * r_3[VCTR_INDEX_Z] -
+            l_3[VCTR_INDEX_Z] * r_3[VCTR_INDEX_Y];
+        out_3[VCTR_INDEX_Y] =
+            l_3[VCTR_INDEX_Z] * r_3[VCTR_INDEX_X] -
+            l_3[VCTR_INDEX_X] * r_3[VCTR_INDEX_Z];
+        out_3[VCTR_INDEX_Z] =
+            l_3[VCTR_INDEX_X] * r_3[VCTR_INDEX_Y] -
+            l_3[VCTR_INDEX_Y] * r_3[VCTR_INDEX_X];
+    }
+
     public static float[] cross3(
         int lOffset,
         float[] l_3,
@@ -282,6 +298,37 @@ public final class QMath extends QEncoding {
         copy3(voffset, v_3, 0, ret_4);
     }
 
+    public static void mul3_4x4Batch(
+        float[] m4x4,
+        float[] inX,
+        float[] inY,
+        float[] inZ,
+        float[] outX,
+        float[] outY,
+        float[] outZ,
+        int     count
+    ) {
+        // NOTE:
+        // - same as mul3_4x4 but on struct-of-arrays vectors. the matrix is
+        //   read once up front so the loop body is simple enough for the JIT
+        //   to vectorize. inputs and outputs may be the same arrays
+        float m00 = get4x4(m4x4, 0, 0), m10 = get4x4(m4x4, 1, 0);
+        float m20 = get4x4(m4x4, 2, 0), m30 = get4x4(m4x4, 3, 0);
+        float m01 = get4x4(m4x4, 0, 1), m11 = get4x4(m4x4, 1, 1);
+        float m21 = get4x4(m4x4, 2, 1), m31 = get4x4(m4x4, 3, 1);
+        float m02 = get4x4(m4x4, 0, 2), m12 = get4x4(m4x4, 1, 2);
+        float m22 = get4x4(m4x4, 2, 2), m32 = get4x4(m4x4, 3, 2);
+
+        for (int i = 0; i < count; i++) {
+            float x = inX[i];
+            float y = inY[i];
+            float z = inZ[i];
+            outX[i] = x * m00 + y * m10 + z * m20 + m30;
+            outY[i] = x * m01 + y * m11 + z * m21 + m31;
+            outZ[i] = x * m02 + y * m12 + z * m22 + m32;
+        }
+    }
+
     public static float[] mul4x4(float[] m1_4x4, float[] m2_4x4) {
         return mul4x4(0, m1_4x4, 0, m2_4x4);
     }
@@ -307,6 +354,19 @@ public final class QMath extends QEncoding {
         return r4x4;
     }
 
+    public static float fastlog2(float val) {
+        // NOTE:
+        // - val = 2^exponent * mantissa with mantissa in [1, 2), so log2(val)
+        //   is exponent + log2(mantissa). 1 + log2(mantissa) is fit with a
+        //   quadratic, which is within 0.01 of the exact value, so the
+        //   exponent is unbiased by one extra
+        // - only meaningful for positive, finite, normal values
+        int   bits     = Float.floatToRawIntBits(val);
+        int   exponent = ((bits >>> 23) & 0xFF) - 128;
+        float mantissa = Float.intBitsToFloat((bits & 0x007FFFFF) | 0x3F800000);
+        return exponent + ((-0.34484843f * mantissa + 2.02466578f) * mantissa - 0.67487759f);
+    }
+
     public static float cosf(float degrees) {
         return (float)Math.cos(degrees * MATH_TO_RADIANS);
     }
@@ -13,6 +13,13 @@ import QDraw.QException.PointOfError;
 public final class QMesh extends QEncoding {
     /////////////////////////////////////////////////////////////////
     // CONSTANTS
+    public static final int FACE_PLANE_CMPS      = 4; // <nx ny nz d>
+    public static final int CLUSTER_BOUNDS_CMPS  = 8; // <cx cy cz r ax ay az cutoff>
+    public static final int DEFAULT_CLUSTER_TRIS = 64;
+    public static final float NO_CONE_CUTOFF     = Float.POSITIVE_INFINITY;
+
+    private static final int MORTON_BITS = 10;
+
     private static final int CMPS_PER_POSN   = 3;
     private static final int CMPS_PER_UV     = 2;
     private static final int CMPS_PER_NORMAL = 3;
@@ -156,12 +163,99 @@ public final class QMesh extends QEncoding {
     private QAttribIndexer posIndexer;
     private QAttribIndexer uvIndexer;
     private QAttribIndexer normalIndexer;
+    private float[]        facePlanes;
+    private float[]        boundsMin;
+    private float[]        boundsMax;
+    private float[]        boundingCenter;
+    private float          boundingRadius;
+    private int            clusterCount;
+    private int[]          clusterOffsets;
+    private int[]          clusterTris;
+    private float[]        clusterBounds;
 
     /////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
     public QAttribIndexer getPosIndexer( ) { return posIndexer; }
     public QAttribIndexer getUVIndexer( ) { return uvIndexer; }
     public QAttribIndexer getNormalIndexer( ) { return normalIndexer; }
+    public float[] getFacePlanes( ) { return facePlanes; }
+    public float[] getBoundsMin( ) { return boundsMin; }
+    public float[] getBoundsMax( ) { return boundsMax; }
+    public float[] getBoundingCenter( ) { return boundingCenter; }
+    public float getBoundingRadius( ) { return boundingRadius; }
+    public boolean hasClusters( ) { return clusterTris != null; }
+    public int getClusterCount( ) { return clusterCount; }
+    public int[] getClusterOffsets( ) { return clusterOffsets; }
+    public int[] getClusterTris( ) { return clusterTris; }
+    public float[] getClusterBounds( ) { return clusterBounds; }
+
+    public void buildClusters( ) {
+        buildClusters(DEFAULT_CLUSTER_TRIS);
+    }
+
+    public void buildClusters(int trisPerCluster) {
+        // NOTE:
+        // - triangles are sorted along a morton curve through the mesh's AABB
+        //   and cut into runs of trisPerCluster, so each cluster is spatially
+        //   compact. clusterTris holds the triangle numbers of cluster n from
+        //   clusterOffsets[n] up to clusterOffsets[n + 1]
+        // - clusters only ever decide which triangles are skipped, triangles
+        //   are still drawn in mesh order
+        // - the cone is the average face normal and the cosine of the largest
+        //   angle any face normal makes with it. when the faces span a
+        //   hemisphere or more the cutoff is NO_CONE_CUTOFF
+        if (trisPerCluster <= 0) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "trisPerCluster must be > 0. Given was " + trisPerCluster
+            );
+        }
+
+        int triCount = posIndexer.getTriCount( );
+        clusterCount   = (triCount + trisPerCluster - 1) / trisPerCluster;
+        clusterOffsets = new int[clusterCount + 1];
+        clusterTris    = new int[triCount];
+        clusterBounds  = new float[clusterCount * CLUSTER_BOUNDS_CMPS];
+
+        // SORT TRIS BY MORTON CODE OF THEIR CENTROID
+        float[] posn    = QMath.new3( );
+        float[] extents = QMath.clone3(boundsMax);
+        QMath.sub3(extents, boundsMin);
+        long[] sortKeys = new long[triCount];
+        int    maxCell  = (1 << MORTON_BITS) - 1;
+        for (int triNum = 0; triNum < triCount; triNum++) {
+            long code = 0;
+            for (int comp = 0; comp < CMPS_PER_POSN; comp++) {
+                float centroid = 0.0f;
+                for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+                    posIndexer.index(triNum, vert, 0, posn);
+                    centroid += posn[comp];
+                }
+                centroid /= VERTS_PER_TRI;
+
+                float norm = (extents[comp] > 0.0f) ? 
+                    (centroid - boundsMin[comp]) / extents[comp] : 0.0f;
+                int cell = Math.max(0, Math.min(maxCell, (int)(norm * maxCell)));
+                for (int bit = 0; bit < MORTON_BITS; bit++) {
+                    code |= (long)((cell >> bit) & 1) << (bit * CMPS_PER_POSN + comp);
+                }
+            }
+            sortKeys[triNum] = (code << Integer.SIZE) | triNum;
+        }
+        Arrays.sort(sortKeys);
+        for (int i = 0; i < triCount; i++) {
+            clusterTris[i] = (int)sortKeys[i];
+        }
+
+        // FIND BOUNDS OF EACH CLUSTER
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            int start = cluster * trisPerCluster;
+            int end   = Math.min(triCount, start + trisPerCluster);
+            clusterOffsets[cluster]     = start;
+            clusterOffsets[cluster + 1] = end;
+            initClusterBounds(cluster, start, end);
+        }
+    }
 
     /////////////////////////////////////////////////////////////////
     // PRIVATE METHODS
@@ -213,6 +307,8 @@ public final class QMesh extends QEncoding {
         );
 
         initIndexers(inFaceIndicies);
+        initFacePlanes( );
+        initBounds( );
 
     }
 
@@ -310,6 +406,137 @@ public final class QMesh extends QEncoding {
 
     }
 
+    private void initFacePlanes( ) {
+        // NOTE:
+        // - one plane per triangle in object space, stored as the unnormalized
+        //   face normal followed by it's dot product with the first vertex.
+        //   the winding matches the normal QViewer derives after transforming,
+        //   so these are used to cull backfaces before any vertex is shaded
+        // - planes are built once from the position buffer, so they must be
+        //   rebuilt if positions are ever modified in place
+        int     triCount = posIndexer.getTriCount( );
+        float[] v0       = QMath.new3( );
+        float[] d01      = QMath.new3( );
+        float[] d02      = QMath.new3( );
+        facePlanes = new float[triCount * FACE_PLANE_CMPS];
+
+        for (int triNum = 0; triNum < triCount; triNum++) {
+            posIndexer.index(triNum, 0, 0, v0);
+            posIndexer.index(triNum, 1, 0, d01);
+            posIndexer.index(triNum, 2, 0, d02);
+            QMath.sub3(d01, v0);
+            QMath.sub3(d02, v0);
+
+            float[] normal = QMath.cross3(d01, d02);
+            int     base   = triNum * FACE_PLANE_CMPS;
+            QMath.copy3(base, facePlanes, 0, normal);
+            facePlanes[base + VCTR_NUM_CMPS] = QMath.dot3(normal, v0);
+        }
+    }
+
+    private void initBounds( ) {
+        // NOTE:
+        // - the sphere is centered on the AABB, and it's radius is the
+        //   distance to the furthest position rather than the half diagonal
+        // - every position in the buffer is included, referenced or not, so
+        //   both volumes are always conservative
+        float[] posns = posBuffer.getBuffer( );
+        boundsMin = QMath.new3( );
+        boundsMax = QMath.new3( );
+        if (posns.length == 0) {
+            boundingCenter = QMath.new3( );
+            boundingRadius = 0.0f;
+            return;
+        }
+
+        QMath.copy3(0, boundsMin, 0, posns);
+        QMath.copy3(0, boundsMax, 0, posns);
+        for (int base = 0; base < posns.length; base += CMPS_PER_POSN) {
+            for (int comp = 0; comp < CMPS_PER_POSN; comp++) {
+                boundsMin[comp] = Math.min(boundsMin[comp], posns[base + comp]);
+                boundsMax[comp] = Math.max(boundsMax[comp], posns[base + comp]);
+            }
+        }
+
+        boundingCenter = QMath.clone3(boundsMin);
+        QMath.add3(boundingCenter, boundsMax);
+        QMath.mult3(boundingCenter, 0.5f);
+
+        float maxSqrDist = 0.0f;
+        float[] delta    = QMath.new3( );
+        for (int base = 0; base < posns.length; base += CMPS_PER_POSN) {
+            QMath.copy3(0, delta, base, posns);
+            QMath.sub3(delta, boundingCenter);
+            maxSqrDist = Math.max(maxSqrDist, QMath.sqrmag3(delta));
+        }
+        boundingRadius = (float)Math.sqrt(maxSqrDist);
+    }
+
+    private void initClusterBounds(int cluster, int start, int end) {
+        float[] posn   = QMath.new3( );
+        float[] cMin   = QMath.new3( );
+        float[] cMax   = QMath.new3( );
+        float[] center = QMath.new3( );
+        float[] axis   = QMath.new3( );
+        int     base   = cluster * CLUSTER_BOUNDS_CMPS;
+
+        // SPHERE
+        posIndexer.index(clusterTris[start], 0, 0, cMin);
+        posIndexer.index(clusterTris[start], 0, 0, cMax);
+        for (int i = start; i < end; i++) {
+            for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+                posIndexer.index(clusterTris[i], vert, 0, posn);
+                for (int comp = 0; comp < CMPS_PER_POSN; comp++) {
+                    cMin[comp] = Math.min(cMin[comp], posn[comp]);
+                    cMax[comp] = Math.max(cMax[comp], posn[comp]);
+                }
+            }
+        }
+        QMath.copy3(center, cMin);
+        QMath.add3(center, cMax);
+        QMath.mult3(center, 0.5f);
+
+        float maxSqrDist = 0.0f;
+        for (int i = start; i < end; i++) {
+            for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+                posIndexer.index(clusterTris[i], vert, 0, posn);
+                QMath.sub3(posn, center);
+                maxSqrDist = Math.max(maxSqrDist, QMath.sqrmag3(posn));
+            }
+        }
+        QMath.copy3(base, clusterBounds, 0, center);
+        clusterBounds[base + 3] = (float)Math.sqrt(maxSqrDist);
+
+        // NORMAL CONE
+        // degenerate faces have no normal and never get drawn, so are ignored
+        for (int i = start; i < end; i++) {
+            int   planeBase = clusterTris[i] * FACE_PLANE_CMPS;
+            float mag       = QMath.mag3(planeBase, facePlanes);
+            if (mag == 0.0f) { continue; }
+            for (int comp = 0; comp < CMPS_PER_POSN; comp++) {
+                axis[comp] += facePlanes[planeBase + comp] / mag;
+            }
+        }
+        float cutoff  = NO_CONE_CUTOFF;
+        float axisMag = QMath.mag3(axis);
+        if (axisMag > 0.0f) {
+            QMath.mult3(axis, 1.0f / axisMag);
+            float minDot = 1.0f;
+            for (int i = start; i < end; i++) {
+                int   planeBase = clusterTris[i] * FACE_PLANE_CMPS;
+                float mag       = QMath.mag3(planeBase, facePlanes);
+                if (mag == 0.0f) { continue; }
+                minDot = Math.min(minDot, QMath.dot3(0, axis, planeBase, facePlanes) / mag);
+            }
+            // the sine of the cone's half angle, only valid below 90 degrees
+            if (minDot > 0.0f) {
+                cutoff = (float)Math.sqrt(Math.max(0.0f, 1.0f - minDot * minDot));
+            }
+        }
+        QMath.copy3(base + 4, clusterBounds, 0, axis);
+        clusterBounds[base + 7] = cutoff;
+    }
+
     /////////////////////////////////////////////////////////////////
     // CONSTRUCTOR
     // inPosn is:
@@ -336,12 +563,21 @@ public final class QMesh extends QEncoding {
     }
 
     public QMesh(QMesh toCopy) {
-        posBuffer     = toCopy.posBuffer;
-        uvBuffer      = toCopy.uvBuffer;
-        normalBuffer  = toCopy.normalBuffer;
-        posIndexer    = toCopy.posIndexer;
-        uvIndexer     = toCopy.uvIndexer;
-        normalIndexer = toCopy.normalIndexer;
+        posBuffer      = toCopy.posBuffer;
+        uvBuffer       = toCopy.uvBuffer;
+        normalBuffer   = toCopy.normalBuffer;
+        posIndexer     = toCopy.posIndexer;
+        uvIndexer      = toCopy.uvIndexer;
+        normalIndexer  = toCopy.normalIndexer;
+        facePlanes     = toCopy.facePlanes;
+        boundsMin      = toCopy.boundsMin;
+        boundsMax      = toCopy.boundsMax;
+        boundingCenter = toCopy.boundingCenter;
+        boundingRadius = toCopy.boundingRadius;
+        clusterCount   = toCopy.clusterCount;
+        clusterOffsets = toCopy.clusterOffsets;
+        clusterTris    = toCopy.clusterTris;
+        clusterBounds  = toCopy.clusterBounds;
     }
 
     public QMesh(String objFilePath) {
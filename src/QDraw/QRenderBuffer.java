@@ -13,12 +13,29 @@ public final class QRenderBuffer extends QSampleable {
     private static final int   CLEAR_COLOR   = new QColor(0x00, 0x00, 0x00, 0x00).toInt();
     private static final float CLEAR_DEPTH   = 0.0f;
 
+    // note: DEPTH_TILE_SIZE must be power of 2
+    public static final int DEPTH_TILE_SIZE  = 8;
+    private static final int DEPTH_TILE_SHIFT = Integer.numberOfTrailingZeros(DEPTH_TILE_SIZE);
+
     /////////////////////////////////////////////////////////////////
     // PRIVATE MEMBERS
     private BufferedImage buffer;
     private float[]       depthBuffer;
     private int[]         colorBuffer;
 
+    // NOTE:
+    // - the depth hierarchy holds the min and max depth of each
+    //   DEPTH_TILE_SIZE square tile of the depth buffer. writes only mark a
+    //   tile dirty, and it's bounds are recomputed when next queried
+    // - while rendering depth only ever decreases, so a stale max is still a
+    //   safe upper bound for rejecting fragments behind the tile
+    private int           depthTilesX;
+    private int           depthTilesY;
+    private float[]       depthTileMin;
+    private float[]       depthTileMax;
+    private boolean[]     depthTileDirty;
+    private QGBuffer      gBuffer = null;
+
     /////////////////////////////////////////////////////////////////
     // CONSTRUCTOR
     public QRenderBuffer(int width, int height) {
@@ -32,6 +49,12 @@ public final class QRenderBuffer extends QSampleable {
         buffer        = new BufferedImage(width, height, COLOR_PACKING);
         depthBuffer   = new float[width * height];
         colorBuffer   = ((DataBufferInt)(buffer.getRaster().getDataBuffer())).getData();
+
+        depthTilesX    = (width  + DEPTH_TILE_SIZE - 1) >> DEPTH_TILE_SHIFT;
+        depthTilesY    = (height + DEPTH_TILE_SIZE - 1) >> DEPTH_TILE_SHIFT;
+        depthTileMin   = new float[depthTilesX * depthTilesY];
+        depthTileMax   = new float[depthTilesX * depthTilesY];
+        depthTileDirty = new boolean[depthTilesX * depthTilesY];
     
         clearColorBuffer();
         clearDepthBuffer();
@@ -65,6 +88,51 @@ public final class QRenderBuffer extends QSampleable {
 
     public void setDepth(int x, int y, float d) {
         depthBuffer[coordToDataIndex(x, y)] = d;
+        markDepthDirty(x, y);
+    }
+
+    public void markDepthDirty(int x, int y) {
+        // NOTE:
+        //  must be called after writing to the array from getDepthData( )
+        //  directly, otherwise the depth hierarchy will be out of date
+        depthTileDirty[depthTileIndex(x >> DEPTH_TILE_SHIFT, y >> DEPTH_TILE_SHIFT)] = true;
+    }
+
+    public QGBuffer getGBuffer( ) {
+        return gBuffer;
+    }
+
+    public QGBuffer attachGBuffer( ) {
+        // NOTE:
+        //  the G-buffer is only allocated once something renders deferred
+        if (gBuffer == null) {
+            gBuffer = new QGBuffer(getWidth( ) * getHeight( ));
+        }
+        return gBuffer;
+    }
+
+    public int getDepthTilesX( ) {
+        return depthTilesX;
+    }
+
+    public int getDepthTilesY( ) {
+        return depthTilesY;
+    }
+
+    public float getDepthTileMin(int tileX, int tileY) {
+        int tileIndex = depthTileIndex(tileX, tileY);
+        if (depthTileDirty[tileIndex]) {
+            updateDepthTile(tileX, tileY);
+        }
+        return depthTileMin[tileIndex];
+    }
+
+    public float getDepthTileMax(int tileX, int tileY) {
+        int tileIndex = depthTileIndex(tileX, tileY);
+        if (depthTileDirty[tileIndex]) {
+            updateDepthTile(tileX, tileY);
+        }
+        return depthTileMax[tileIndex];
     }
 
     public int coordToDataIndex(int x, int y) {
@@ -91,5 +159,43 @@ public final class QRenderBuffer extends QSampleable {
         for (int i = 0; i < depthBuffer.length; i++) {
             depthBuffer[i] = CLEAR_DEPTH;
         }
+        for (int i = 0; i < depthTileDirty.length; i++) {
+            depthTileMin[i]   = CLEAR_DEPTH;
+            depthTileMax[i]   = CLEAR_DEPTH;
+            depthTileDirty[i] = false;
+        }
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    private int depthTileIndex(int tileX, int tileY) {
+        return tileX + (tileY * depthTilesX);
+    }
+
+    private void updateDepthTile(int tileX, int tileY) {
+        // NOTE:
+        //  the dirty flag is cleared before reading so that a write made
+        //  during the scan will mark the tile dirty again
+        int tileIndex = depthTileIndex(tileX, tileY);
+        depthTileDirty[tileIndex] = false;
+
+        int xStart = tileX << DEPTH_TILE_SHIFT;
+        int yStart = tileY << DEPTH_TILE_SHIFT;
+        int xEnd   = Math.min(xStart + DEPTH_TILE_SIZE, getWidth( ));
+        int yEnd   = Math.min(yStart + DEPTH_TILE_SIZE, getHeight( ));
+
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int y = yStart; y < yEnd; y++) {
+            int rowIndex = coordToDataIndex(0, y);
+            for (int x = xStart; x < xEnd; x++) {
+                float depth = depthBuffer[rowIndex + x];
+                min = Math.min(min, depth);
+                max = Math.max(max, depth);
+            }
+        }
+
+        depthTileMin[tileIndex] = min;
+        depthTileMax[tileIndex] = max;
     }
 }
@@ -13,6 +13,12 @@ public abstract class QSampleable {
     protected static final int COLOR_PACKING   = BufferedImage.TYPE_INT_ARGB;
     protected static final int NO_SAMPLE_COLOR = new QColor(0x00, 0x00, 0x00, 0x00).toInt(); 
 
+    // note: filter weights are fixed point with BILINEAR_WEIGHT_BITS of
+    //       fraction. lerpColor relies on it being 8, so that a weighted
+    //       channel lands exactly one channel over
+    protected static final int BILINEAR_WEIGHT_BITS = 8;
+    protected static final int BILINEAR_WEIGHT_ONE  = 1 << BILINEAR_WEIGHT_BITS;
+
     /////////////////////////////////////////////////////////////////
     // PUBLIC ENUMS
     public enum SampleType {
@@ -21,6 +27,18 @@ public abstract class QSampleable {
         Repeat
     };
 
+    // NOTE:
+    // - how texels are picked, independent of how uvs are wrapped.
+    //   NearestMip and Trilinear choose from a sampleable's mip chain by the
+    //   lod given to them, so they only differ from Nearest/Bilinear on
+    //   sampleables which have mipmaps
+    public enum SampleFilter {
+        Nearest,
+        Bilinear,
+        NearestMip,
+        Trilinear
+    };
+
     /////////////////////////////////////////////////////////////////
     // PUBLIC INTERFACES
     public static interface ColorMapFunction {
@@ -102,6 +120,176 @@ public abstract class QSampleable {
         return getColor(texCoordX, texCoordY);
     }
 
+    public float findLOD(
+        float dudx,
+        float dvdx,
+        float dudy,
+        float dvdy
+    ) {
+        // NOTE:
+        // - the number of texels one pixel steps over along whichever screen
+        //   axis covers more of the texture, as a mip level. lods below 0
+        //   (magnification) and non-finite derivatives both give level 0
+        float texelsX = 
+            (dudx * getWidth( )) * (dudx * getWidth( )) + 
+            (dvdx * getHeight( )) * (dvdx * getHeight( ));
+        float texelsY = 
+            (dudy * getWidth( )) * (dudy * getWidth( )) + 
+            (dvdy * getHeight( )) * (dvdy * getHeight( ));
+        float texelsSqr = Math.max(texelsX, texelsY);
+        if (!(texelsSqr > 1.0f) || texelsSqr == Float.POSITIVE_INFINITY) {
+            return 0.0f;
+        }
+        return 0.5f * QMath.fastlog2(texelsSqr);
+    }
+
+    public int sample(
+        float u,
+        float v,
+        float lod,
+        SampleType sampleType,
+        SampleFilter sampleFilter
+    ) {
+        // NOTE:
+        //  a plain sampleable only has one level, so lod is ignored
+        switch (sampleFilter) {
+            case Nearest:
+            case NearestMip:
+                return sample(u, v, sampleType);
+
+            case Bilinear:
+            case Trilinear:
+                return sampleBilinear(u, v, sampleType);
+
+            default:
+                throw new QException(
+                    PointOfError.BadState, 
+                    "Invalid sample filter: " + sampleFilter.toString()
+                );
+        }
+    }
+
+    public int sampleBilinear(
+        float u,
+        float v,
+        SampleType sampleType
+    ) {
+        // NOTE:
+        // - the 4 texels around (u, v) are blended by their distance from it,
+        //   with texel centers at +0.5. how the footprint is wrapped at the
+        //   texture's edges follows the sample type
+        switch (sampleType) {
+            case Cutoff:
+                if (u < 0.0f || u >= 1.0f || v < 0.0f || v >= 1.0f) {
+                    return NO_SAMPLE_COLOR;
+                }
+                break;
+
+            case Clamp:
+                u = Math.min(1.0f, Math.max(u, 0.0f));
+                v = Math.min(1.0f, Math.max(v, 0.0f));
+                break;
+
+            case Repeat:
+                u = u - (float)Math.floor(u);
+                v = v - (float)Math.floor(v);
+                break;
+
+            default:
+                throw new QException(
+                    PointOfError.BadState, 
+                    "Invalid sample type: " + sampleType.toString()
+                );
+        }
+
+        // texel positions are converted straight to fixed point, offset by
+        // one texel so they're never negative and truncation is a floor
+        int width   = getWidth( );
+        int height  = getHeight( );
+        int fixedX  = (int)((u * width + 0.5f) * BILINEAR_WEIGHT_ONE);
+        int fixedY  = (int)((v * height + 0.5f) * BILINEAR_WEIGHT_ONE);
+        int floorX  = (fixedX >> BILINEAR_WEIGHT_BITS) - 1;
+        int floorY  = (fixedY >> BILINEAR_WEIGHT_BITS) - 1;
+        int weightX = fixedX & (BILINEAR_WEIGHT_ONE - 1);
+        int weightY = fixedY & (BILINEAR_WEIGHT_ONE - 1);
+
+        boolean repeat = (sampleType == SampleType.Repeat);
+        int x0 = wrapTexel(floorX, width, repeat);
+        int x1 = wrapTexel(floorX + 1, width, repeat);
+        int y0 = wrapTexel(floorY, height, repeat);
+        int y1 = wrapTexel(floorY + 1, height, repeat);
+
+        return blendFootprint(x0, x1, y0, y1, weightX, weightY);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // PROTECTED METHODS
+    protected int blendFootprint(int x0, int x1, int y0, int y1, int weightX, int weightY) {
+        // NOTE:
+        //  sampleables which know their own layout can override this to
+        //  fetch all 4 texels without translating each one separately
+        return blendColors(
+            getColor(x0, y0), getColor(x1, y0), 
+            getColor(x0, y1), getColor(x1, y1), 
+            weightX, weightY
+        );
+    }
+
+    protected static int wrapTexel(int coord, int size, boolean repeat) {
+        if (repeat) {
+            if (coord < 0)     { return coord + size; }
+            if (coord >= size) { return coord - size; }
+            return coord;
+        }
+        return Math.max(0, Math.min(coord, size - 1));
+    }
+
+    protected static int blendColors(
+        int color00, 
+        int color10, 
+        int color01, 
+        int color11, 
+        int weightX, 
+        int weightY
+    ) {
+        // NOTE:
+        // - blends a 2x2 footprint in one pass, the same way as lerpColor.
+        //   the 4 weights always sum to exactly BILINEAR_WEIGHT_ONE, so the
+        //   weighted sums still fit in each channel's headroom
+        int weight11 = (weightX * weightY) >> BILINEAR_WEIGHT_BITS;
+        int weight10 = weightX - weight11;
+        int weight01 = weightY - weight11;
+        int weight00 = BILINEAR_WEIGHT_ONE - weightX - weightY + weight11;
+        int rb = 
+            (color00 & 0x00FF00FF) * weight00 + 
+            (color10 & 0x00FF00FF) * weight10 + 
+            (color01 & 0x00FF00FF) * weight01 + 
+            (color11 & 0x00FF00FF) * weight11;
+        int ag = 
+            ((color00 >>> 8) & 0x00FF00FF) * weight00 + 
+            ((color10 >>> 8) & 0x00FF00FF) * weight10 + 
+            ((color01 >>> 8) & 0x00FF00FF) * weight01 + 
+            ((color11 >>> 8) & 0x00FF00FF) * weight11;
+        return ((rb >>> BILINEAR_WEIGHT_BITS) & 0x00FF00FF) | (ag & 0xFF00FF00);
+    }
+
+    protected static int lerpColor(int color0, int color1, int weight) {
+        // NOTE:
+        // - weight is in [0, BILINEAR_WEIGHT_ONE], where 0 gives color0
+        // - all 4 channels are blended at once, two per int. masking out
+        //   every other channel leaves each one 8 bits of headroom, which is
+        //   exactly enough for a channel times a weight, so the weighted sums
+        //   never carry into their neighbour
+        int inverse = BILINEAR_WEIGHT_ONE - weight;
+        int rb = 
+            (color0 & 0x00FF00FF) * inverse + 
+            (color1 & 0x00FF00FF) * weight;
+        int ag = 
+            ((color0 >>> 8) & 0x00FF00FF) * inverse + 
+            ((color1 >>> 8) & 0x00FF00FF) * weight;
+        return ((rb >>> BILINEAR_WEIGHT_BITS) & 0x00FF00FF) | (ag & 0xFF00FF00);
+    }
+
     /////////////////////////////////////////////////////////////////
     // ABSTRACT METHODS
     public abstract int    getWidth( );
@@ -0,0 +1,136 @@
+// Bailey JT Brown
+// 2024
+// QSampler.java
+
+package QDraw;
+
+import QDraw.QException.PointOfError;
+import QDraw.QSampleable.SampleType;
+
+// NOTE:
+// - a sampler is bound to one sampleable and one sample type, and samples
+//   it the same as QSampleable.sample(u, v, sampleType) would. everything
+//   which doesn't change per sample, including how texels are fetched, is
+//   picked once by bind
+// - QSampler is final, so every sample(u, v) call site only ever sees one
+//   class no matter how many kinds of sampleable are bound. the per sample
+//   branches are on final fields, which stay the same for a whole draw and
+//   so are always predicted
+// - QSampleable.sample calls getWidth/getHeight/getColor, which go through
+//   whichever subclasses the JIT has seen. here textures and render buffers
+//   are read straight from their color buffers, so the call sites in sample
+//   only ever see QSampler and QTexture
+// - compressed textures are decoded through QTexture.getColor, which is
+//   final, so those calls are monomorphic too
+// - textures and render buffers never reallocate their color buffers, so a
+//   sampler stays valid for as long as it's target lives
+public final class QSampler {
+    /////////////////////////////////////////////////////////////////
+    // CONSTANTS
+    private static final int INDEX_TEXTURE  = 0;
+    private static final int INDEX_FLIPPED  = 1;
+    private static final int INDEX_DECODE   = 2;
+    private static final int INDEX_FALLBACK = 3;
+
+    /////////////////////////////////////////////////////////////////
+    // PRIVATE MEMBERS
+    private final QSampleable target;
+    private final SampleType  sampleType;
+    private final QTexture    texture;
+    private final int[]       texels;
+    private final int         indexMode;
+    private final int         width, height;
+    private final int         maxX, maxY;
+    private final float       widthF, heightF;
+
+    /////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    private int internalGetTexel(int x, int y) {
+        if (indexMode == INDEX_TEXTURE) {
+            return texels[texture.translateIndex(x, y)];
+        }
+        if (indexMode == INDEX_FLIPPED) {
+            // render buffers are stored flipped vertically
+            return texels[x + width * (maxY - y)];
+        }
+        if (indexMode == INDEX_DECODE) {
+            return texture.getColor(x, y);
+        }
+        return target.getColor(x, y);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    public QSampleable getTarget( ) {
+        return target;
+    }
+
+    public SampleType getSampleType( ) {
+        return sampleType;
+    }
+
+    public int sample(float u, float v) {
+        if (sampleType == SampleType.Repeat) {
+            u = u - (float)Math.floor(u);
+            v = v - (float)Math.floor(v);
+        } else if (sampleType == SampleType.Clamp) {
+            u = Math.min(1.0f, Math.max(u, 0.0f));
+            v = Math.min(1.0f, Math.max(v, 0.0f));
+        } else if (u < 0.0f || u >= 1.0f || v < 0.0f || v >= 1.0f) {
+            return QSampleable.NO_SAMPLE_COLOR;
+        }
+
+        // u and v are in [0, 1] here (or NaN, which casts to 0), so texel
+        // coords only ever need clamping from above
+        int texCoordX = Math.min((int)(widthF * u), maxX);
+        int texCoordY = Math.min((int)(heightF * v), maxY);
+        return internalGetTexel(texCoordX, texCoordY);
+    }
+
+    public static QSampler bind(QSampleable target, SampleType sampleType) {
+        if (target == null || sampleType == null) {
+            throw new QException(
+                PointOfError.InvalidParameter,
+                "target or sampleType was null"
+            );
+        }
+
+        if (target instanceof QTexture) {
+            QTexture texture = (QTexture)target;
+            int[]    texels  = texture.getColorBuffer( );
+            if (texels == null) {
+                return new QSampler(target, sampleType, texture, null, INDEX_DECODE);
+            }
+            return new QSampler(target, sampleType, texture, texels, INDEX_TEXTURE);
+        }
+
+        if (target instanceof QRenderBuffer) {
+            int[] texels = ((QRenderBuffer)target).getColorData( );
+            return new QSampler(target, sampleType, null, texels, INDEX_FLIPPED);
+        }
+
+        return new QSampler(target, sampleType, null, null, INDEX_FALLBACK);
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // CONSTRUCTOR
+    private QSampler(
+        QSampleable _target,
+        SampleType  _sampleType,
+        QTexture    _texture,
+        int[]       _texels,
+        int         _indexMode
+    ) {
+        target     = _target;
+        sampleType = _sampleType;
+        texture    = _texture;
+        texels     = _texels;
+        indexMode  = _indexMode;
+        width      = target.getWidth( );
+        height     = target.getHeight( );
+        maxX       = width - 1;
+        maxY       = height - 1;
+        widthF     = (float)width;
+        heightF    = (float)height;
+    }
+}
@@ -14,6 +14,7 @@ public abstract class QShader {
     public static final int RANDOM_GRANULATIRY        = 0xFFFF;
     public static final float NORMALIZATION_FACTOR    = 1.0f / (float)RANDOM_GRANULATIRY;
     public static final int VERTEX_SHADER_MAX_OUTPUTS = 8;
+    public static final int FRAGMENT_SCRATCH_FLOATS   = 32;
 
     /////////////////////////////////////////////////////////////////
     // PUBLIC CLASSES
@@ -26,6 +27,55 @@ public abstract class QShader {
         public float[][]  outputsToFragShader = new float[VERTEX_SHADER_MAX_OUTPUTS][];
     }
 
+    public static final class VertexBatchContext {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        public Object[]      uniforms;
+        public QSampleable[] textures;
+        public int           count;
+
+        // NOTE:
+        // - everything is struct-of-arrays. attributes and outputs are
+        //   indexed [slot][component][vertex] and positionsOut is indexed
+        //   [component][vertex]. arrays may be longer than count
+        public float[][][]   attributes          = new float[0][][];
+        public float[][]     positionsOut        = new float[QEncoding.VCTR_NUM_CMPS][0];
+        public float[][][]   outputsToFragShader = new float[VERTEX_SHADER_MAX_OUTPUTS][][];
+
+        /////////////////////////////////////////////////////////////////
+        // PRIVATE MEMBERS
+        private float[][][]  outputPool          = new float[VERTEX_SHADER_MAX_OUTPUTS][][];
+        private int          capacity            = 0;
+
+        /////////////////////////////////////////////////////////////////
+        // PACKAGE METHODS
+        void prepare(int attribSlots, int vertCount) {
+            // NOTE:
+            // - buffers are kept between batches and only grown. outputs are
+            //   cleared so that only slots written by this batch are used
+            if (capacity < vertCount) {
+                capacity     = vertCount;
+                positionsOut = new float[QEncoding.VCTR_NUM_CMPS][capacity];
+                attributes   = new float[attribSlots][][];
+                outputPool   = new float[VERTEX_SHADER_MAX_OUTPUTS][][];
+            }
+            if (attributes.length != attribSlots) {
+                attributes = new float[attribSlots][][];
+            }
+            for (int slot = 0; slot < outputsToFragShader.length; slot++) {
+                outputsToFragShader[slot] = null;
+            }
+            count = vertCount;
+        }
+
+        float[][] prepareAttribute(int slot, int components) {
+            if (attributes[slot] == null || attributes[slot].length != components) {
+                attributes[slot] = new float[components][capacity];
+            }
+            return attributes[slot];
+        }
+    }
+
     public static final class FragmentShaderContext {
         /////////////////////////////////////////////////////////////////
         // PUBLIC MEMBERS
@@ -35,8 +85,31 @@ public abstract class QShader {
         public int        screenX;
         public int        screenY;
         public float      invDepth;
-        public QVector3   normal;
+        public QVector3   normal                 = new QVector3( );
         public float[][]  inputsFromVertexShader = new float[VERTEX_SHADER_MAX_OUTPUTS][];
+
+        // NOTE:
+        // - fragments are shaded in screen aligned 2x2 quads. inputDdx and
+        //   inputDdy are laid out the same as inputsFromVertexShader, and hold
+        //   the change of each input across the quad's columns (+x) and rows
+        //   (+y). every fragment of a quad shares the same derivatives
+        // - quad pixels outside of the triangle still contribute, so near
+        //   silhouettes a derivative may be very large or not finite
+        public float[][]  inputDdx               = new float[VERTEX_SHADER_MAX_OUTPUTS][];
+        public float[][]  inputDdy               = new float[VERTEX_SHADER_MAX_OUTPUTS][];
+
+        // NOTE:
+        // - when the viewer has tiled lights, this is the list of lights
+        //   which reach the fragment's screen tile. otherwise it is null
+        public QLight[]   tileLights;
+
+        // NOTE:
+        // - a context is reused for every fragment shaded on a thread, so
+        //   shaders can write their result to outputColor and use scratch for
+        //   temporary values instead of allocating. neither is preserved
+        //   between fragments
+        public QColor     outputColor            = new QColor( );
+        public float[]    scratch                = new float[FRAGMENT_SCRATCH_FLOATS];
     }
 
     public static final class ShaderRequirement {
@@ -106,20 +179,94 @@ public abstract class QShader {
         setOutputToFragShader(vertCtx, attribSlot, vertCtx.attributes[attribSlot]);
     }
 
+    public static float[][] getBatchOutputToFragShader(
+        VertexBatchContext batchCtx,
+        int outputSlot,
+        int components
+    ) {
+        float[][] output = batchCtx.outputPool[outputSlot];
+        if (output == null || output.length != components) {
+            output = new float[components][batchCtx.capacity];
+            batchCtx.outputPool[outputSlot] = output;
+        }
+        batchCtx.outputsToFragShader[outputSlot] = output;
+        return output;
+    }
+
+    public static void forwardAttributeToFragShader(
+        VertexBatchContext batchCtx,
+        int attribSlot
+    ) {
+        float[][] attrib = batchCtx.attributes[attribSlot];
+        float[][] output = getBatchOutputToFragShader(batchCtx, attribSlot, attrib.length);
+        for (int comp = 0; comp < attrib.length; comp++) {
+            System.arraycopy(attrib[comp], 0, output[comp], 0, batchCtx.count);
+        }
+    }
+
+    public static QLight[] getLights(
+        FragmentShaderContext fragCtx,
+        int uniformSlot
+    ) {
+        // NOTE:
+        //  prefer the culled lights of the fragment's tile when there are any
+        if (fragCtx.tileLights != null) {
+            return fragCtx.tileLights;
+        }
+        return (QLight[])fragCtx.uniforms[uniformSlot];
+    }
+
     public static void getOutputFromVertShader(
         FragmentShaderContext fragCtx,
         int inputSlot, 
         float[] outBuffer
+    ) {
+        getOutputFromVertShader(fragCtx, inputSlot, outBuffer, 0);
+    }
+
+    public static void getOutputFromVertShader(
+        FragmentShaderContext fragCtx,
+        int inputSlot, 
+        float[] outBuffer,
+        int outOffset
     ) {
         System.arraycopy(
             fragCtx.inputsFromVertexShader[inputSlot], 
             0, 
             outBuffer, 
-            0, 
+            outOffset, 
             fragCtx.inputsFromVertexShader[inputSlot].length
         );
     }
 
+    public static void getDdxFromVertShader(
+        FragmentShaderContext fragCtx,
+        int inputSlot,
+        float[] outBuffer
+    ) {
+        System.arraycopy(
+            fragCtx.inputDdx[inputSlot], 
+            0, 
+            outBuffer, 
+            0, 
+            fragCtx.inputDdx[inputSlot].length
+        );
+    }
+
+    public static void getDdyFromVertShader(
+        FragmentShaderContext fragCtx,
+        int inputSlot,
+        float[] outBuffer
+    ) {
+        System.arraycopy(
+            fragCtx.inputDdy[inputSlot], 
+            0, 
+            outBuffer, 
+            0, 
+            fragCtx.inputDdy[inputSlot].length
+        );
+    }
+
     private static AtomicLong _seedUniquifier = new AtomicLong(0x5EED);
     public static float random( ) {
         return seededRandom((int)(_seedUniquifier.incrementAndGet( ) + System.nanoTime( )));
@@ -182,6 +329,32 @@ public abstract class QShader {
         );
     }
 
+    public static int blendColor(int bottom, int top) {
+        // NOTE: 
+        //  same as blendColor(QColor, QColor) but on packed ARGB ints so
+        //  that no QColor has to be created
+        int tFac = (top & QEncoding.COL_BMASK_A) >>> QEncoding.COL_LSHIFT_OFST_A;
+        if (tFac == 0xFF) return top;
+
+        int bFac = 0xFF - tFac;
+        if (bFac == 0xFF) return bottom;
+
+        int r = 
+            (((top    >>> QEncoding.COL_LSHIFT_OFST_R) & QEncoding.COL_CHNL_BMASK) * tFac + 
+             ((bottom >>> QEncoding.COL_LSHIFT_OFST_R) & QEncoding.COL_CHNL_BMASK) * bFac) >>> 8;
+        int g = 
+            (((top    >>> QEncoding.COL_LSHIFT_OFST_G) & QEncoding.COL_CHNL_BMASK) * tFac + 
+             ((bottom >>> QEncoding.COL_LSHIFT_OFST_G) & QEncoding.COL_CHNL_BMASK) * bFac) >>> 8;
+        int b = 
+            (((top    >>> QEncoding.COL_LSHIFT_OFST_B) & QEncoding.COL_CHNL_BMASK) * tFac + 
+             ((bottom >>> QEncoding.COL_LSHIFT_OFST_B) & QEncoding.COL_CHNL_BMASK) * bFac) >>> 8;
+
+        return QEncoding.COL_BMASK_A | 
+            (r << QEncoding.COL_LSHIFT_OFST_R) | 
+            (g << QEncoding.COL_LSHIFT_OFST_G) | 
+            (b << QEncoding.COL_LSHIFT_OFST_B);
+    }
+
     public static QColor addColor(QColor color1, QColor color2) {
         return new QColor(
             (color1.getR() + color1.getR()),
@@ -218,6 +391,25 @@ public abstract class QShader {
         );
     }
 
+    /////////////////////////////////////////////////////////////////
+    // BATCHED VERTEX SHADING
+    // NOTE:
+    // - shaders may optionally shade all vertices of a draw at once by
+    //   overriding both of these. vertexShaderBatch must produce the same
+    //   positions and outputs as calling vertexShader on each vertex
+    public boolean hasBatchedVertexShader( ) {
+        return false;
+    }
+
+    public void vertexShaderBatch(
+        VertexBatchContext context
+    ) {
+        throw new QException(
+            PointOfError.BadState, 
+            "Shader does not implement a batched vertex shader"
+        );
+    }
+
     /////////////////////////////////////////////////////////////////
     // ABSTRACT METHODS
     public abstract ShaderRequirement[] requirements( );
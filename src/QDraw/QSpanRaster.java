@@ -0,0 +1,69 @@
+// Bailey JT Brown
+// 2024
+// QSpanRaster.java
+
+package QDraw;
+
+// NOTE:
+// - span kernels for QViewer's vectorized raster path. each span is one row
+//   of a raster block, so a span is always LANES pixels wide
+// - the only implementation is QVectorRaster, which lives in src-vector as it
+//   needs jdk.incubator.vector. src builds without it, and QViewer loads it
+//   by name, falling back to the scalar path when it isn't there
+interface QSpanRaster {
+    /////////////////////////////////////////////////////////////////
+    // CONSTANTS
+    public static final int LANES = 8;
+
+    /////////////////////////////////////////////////////////////////
+    // PUBLIC METHODS
+    public boolean isSupported( );
+
+    // returns a bitmask of every lane in [laneStart, laneEnd] which is inside
+    // the triangle and passes the depth test, and writes every lane's depth
+    // to depthsOut
+    public int coverSpan(
+        int     e0,
+        int     e1,
+        int     e2,
+        int     stepE0,
+        int     stepE1,
+        int     stepE2,
+        boolean acceptAll,
+        int     laneStart,
+        int     laneEnd,
+        float   depthStart,
+        float   depthStep,
+        float   depthEpsilon,
+        boolean depthEqual,
+        float[] depthBuffer,
+        int     dataIndex,
+        float[] depthsOut,
+        int     depthsOffset
+    );
+
+    // writes [plane][lane] to lanePlanesOut from outOffset. plane 0 is left as
+    // invZ and every other plane is divided by it
+    public void interpolateSpan(
+        float[] rowPlanes,
+        float[] planeDX,
+        int     planeCount,
+        float[] lanePlanesOut,
+        int     outOffset
+    );
+
+    public void storeSpanColor(
+        int[]   colors,
+        int     writeMask,
+        int[]   colorBuffer,
+        int     dataIndex
+    );
+
+    public void storeSpanDepth(
+        float[] depths,
+        int     depthsOffset,
+        int     writeMask,
+        float[] depthBuffer,
+        int     dataIndex
+    );
+}
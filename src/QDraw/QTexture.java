@@ -7,21 +7,63 @@ package QDraw;
 import java.io.*;
 import java.awt.image.*;
 import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.HashMap;
 import javax.imageio.ImageIO;
 import QDraw.QException.PointOfError;
 
 public class QTexture extends QSampleable {
     /////////////////////////////////////////////////////////////////
     // CONSTANTS
-    // note: CHUNK_WIDTH/HEIGHT must be power of 4
-    private static final int CHUNK_WIDTH  = 16;
-    private static final int CHUNK_HEIGHT = 16;
-    private static final int CHUNK_WIDTH_REMAINDER_MASK  = CHUNK_WIDTH  - 1;
-    private static final int CHUNK_HEIGHT_REMAINDER_MASK = CHUNK_HEIGHT - 1;
-    private static final int CHUNK_WIDTH_FAC_SHIFT  = 31 - Integer.numberOfLeadingZeros(CHUNK_WIDTH);
-    private static final int CHUNK_HEIGHT_FAC_SHIFT = 31 - Integer.numberOfLeadingZeros(CHUNK_HEIGHT);
-    private static final int CHUNK_AREA             = CHUNK_WIDTH * CHUNK_HEIGHT;
-    private static final int CHUNK_AREA_FAC_SHIFT   = 31 - Integer.numberOfLeadingZeros(CHUNK_AREA);
+    // note: chunk sizes must be powers of 2. DEFAULT_CHUNK_SIZE is the
+    //       fastest size in Profile.ProfileChunkSizes, and is used unless
+    //       a chunk size is given
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+    public static final int MIN_CHUNK_SIZE     = 4;
+    public static final int MAX_CHUNK_SIZE     = 64;
+
+    public static final TextureLayout DEFAULT_LAYOUT = TextureLayout.Chunked;
+
+    public static final int MAX_PALETTE_SIZE = 256;
+
+    // note: BC1 blocks are BC1_BLOCK_SIZE x BC1_BLOCK_SIZE texels, stored as
+    //       2 ints. the first holds both RGB565 endpoints, the second holds
+    //       2 bits of palette index per texel
+    public static final int BC1_BLOCK_SIZE   = 4;
+    private static final int BC1_BLOCK_SHIFT = 2;
+    private static final int BC1_BLOCK_MASK  = BC1_BLOCK_SIZE - 1;
+    private static final int BC1_BLOCK_INTS  = 2;
+    private static final int BC1_TRANSPARENT = 0x00000000;
+
+    // note: MORTON_SPREAD[n] is the 8 bits of n spread to every other bit
+    private static final int[] MORTON_SPREAD = internalBuildMortonSpread( );
+
+    /////////////////////////////////////////////////////////////////
+    // PUBLIC ENUMS
+    // NOTE:
+    // - how texels are ordered in the color buffer. Linear is row by row,
+    //   Chunked is row by row within square chunks of getChunkSize( ) and
+    //   Morton follows a Z-order curve, so texels which are near each other
+    //   in any direction tend to be near in memory
+    public enum TextureLayout {
+        Linear,
+        Chunked,
+        Morton
+    };
+
+    // NOTE:
+    // - how texels are stored. ARGB is 32 bits per texel, Paletted is an 8
+    //   bit index into a palette of up to MAX_PALETTE_SIZE colors, and BC1 is
+    //   4 bits per texel in blocks, like DXT1
+    // - Paletted and BC1 textures are made by compressing an ARGB one, are
+    //   decoded as they're sampled and can't be written to. Paletted follows
+    //   the texture's layout, while BC1 blocks are always stored row by row,
+    //   each block being its own 4x4 chunk
+    public enum TextureFormat {
+        ARGB,
+        Paletted,
+        BC1
+    };
 
     public static QTexture CheckerBoard(int size) {
         return CheckerBoard(size, QColor.White(), QColor.Black());
@@ -45,31 +87,458 @@ public class QTexture extends QSampleable {
     // PRIVATE MEMBERS
     private int   width, height;
     private int   xChunks, yChunks;
+    private int   chunkShift, chunkMask, chunkAreaShift;
+    private int   mortonBits, mortonMask;
     private int[] colorBuffer;
+    private TextureLayout layout;
+
+    // NOTE:
+    //  only the buffers belonging to the texture's format are allocated,
+    //  colorBuffer is null for compressed textures
+    private TextureFormat format = TextureFormat.ARGB;
+    private byte[] indexBuffer;
+    private int[]  palette;
+    private int[]  blockBuffer;
+    private int    xBlocks;
+
+    // NOTE:
+    // - mipLevels[0] is this texture, and each following level is half the
+    //   size of the one before it, down to 1x1. it is null until mipmaps are
+    //   built, and is not updated when the texture is changed afterwards
+    private QTexture[] mipLevels;
 
     /////////////////////////////////////////////////////////////////
     // PRIVATE METHODS
-    private void initColorBuffer(int targetWidth, int targetHeight) {
+    private void initColorBuffer(
+        int targetWidth, 
+        int targetHeight, 
+        TextureLayout targetLayout, 
+        int targetChunkSize
+    ) {
+        colorBuffer = new int[initLayout(targetWidth, targetHeight, targetLayout, targetChunkSize)];
+    }
+
+    private int initLayout(
+        int targetWidth, 
+        int targetHeight, 
+        TextureLayout targetLayout, 
+        int targetChunkSize
+    ) {
         // NOTE:
-        // in this encoding, width/height dimensions must be multiples of
-        // CHUNK_WIDTH and CHUNK_HEIGHT, so we will allocate in excess
+        //  returns how many texels the layout needs to be allocated
+        if (targetChunkSize < MIN_CHUNK_SIZE || 
+            targetChunkSize > MAX_CHUNK_SIZE ||
+            Integer.bitCount(targetChunkSize) != 1) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "chunk size must be a power of 2 from " + MIN_CHUNK_SIZE +
+                " to " + MAX_CHUNK_SIZE + ", was " + targetChunkSize
+            );
+        }
+
         width  = targetWidth;
         height = targetHeight;
+        layout = targetLayout;
+
+        if (layout == TextureLayout.Linear) {
+            return width * height;
+        }
+
+        if (layout == TextureLayout.Morton) {
+            // NOTE:
+            // - both dimensions are padded to powers of 2. the low bits of x
+            //   and y are interleaved across the smaller of the two, and the
+            //   remaining high bits of the larger one select which square of
+            //   that size the texel is in
+            int paddedWidth  = Integer.highestOneBit(Math.max(1, width * 2 - 1));
+            int paddedHeight = Integer.highestOneBit(Math.max(1, height * 2 - 1));
+            mortonBits  = Integer.numberOfTrailingZeros(Math.min(paddedWidth, paddedHeight));
+            mortonMask  = (1 << mortonBits) - 1;
+            return paddedWidth * paddedHeight;
+        }
 
-        xChunks        = targetWidth >> CHUNK_WIDTH_FAC_SHIFT;
-        int xRemainder = targetWidth & CHUNK_WIDTH_REMAINDER_MASK;
+        // NOTE:
+        // in this encoding, width/height dimensions must be multiples of
+        // the chunk size, so we will allocate in excess
+
+        chunkShift     = Integer.numberOfTrailingZeros(targetChunkSize);
+        chunkMask      = targetChunkSize - 1;
+        chunkAreaShift = chunkShift << 1;
+
+        xChunks        = targetWidth >> chunkShift;
+        int xRemainder = targetWidth & chunkMask;
         if (xRemainder > 0) { xChunks++; }
 
-        yChunks        = targetHeight >> CHUNK_HEIGHT_FAC_SHIFT;
-        int yRemainder = targetHeight & CHUNK_HEIGHT_REMAINDER_MASK;
+        yChunks        = targetHeight >> chunkShift;
+        int yRemainder = targetHeight & chunkMask;
         if (yRemainder > 0) { yChunks++; }
 
-        colorBuffer = new int[CHUNK_AREA * xChunks * yChunks];
+        return (xChunks * yChunks) << chunkAreaShift;
+    }
+
+    private int initLayoutFrom(QTexture source) {
+        return initLayout(
+            source.width, 
+            source.height, 
+            source.layout, 
+            (source.layout == TextureLayout.Chunked) ? source.getChunkSize( ) : DEFAULT_CHUNK_SIZE
+        );
+    }
+
+    private void initPaletted(QTexture source) {
+        int texelCount = initLayoutFrom(source);
+
+        int[] colors = new int[width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                colors[x + y * width] = source.getColor(x, y);
+            }
+        }
+
+        byte[] indicies = new byte[colors.length];
+        palette     = internalBuildPalette(colors, indicies);
+        indexBuffer = new byte[texelCount];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                indexBuffer[translateIndex(x, y)] = indicies[x + y * width];
+            }
+        }
+    }
+
+    private void initBC1(QTexture source) {
+        // NOTE:
+        //  the layout is kept so that decoded copies use it, even though
+        //  blocks themselves are always stored row by row
+        initLayoutFrom(source);
+        xBlocks = (width + BC1_BLOCK_MASK) >> BC1_BLOCK_SHIFT;
+        int yBlocks = (height + BC1_BLOCK_MASK) >> BC1_BLOCK_SHIFT;
+        blockBuffer = new int[xBlocks * yBlocks * BC1_BLOCK_INTS];
+
+        // blocks hanging off the texture's edges repeat it's last texels
+        int[] block = new int[BC1_BLOCK_SIZE * BC1_BLOCK_SIZE];
+        for (int blockY = 0; blockY < yBlocks; blockY++) {
+            for (int blockX = 0; blockX < xBlocks; blockX++) {
+                for (int sub = 0; sub < block.length; sub++) {
+                    int x = Math.min((blockX << BC1_BLOCK_SHIFT) + (sub & BC1_BLOCK_MASK), width - 1);
+                    int y = Math.min((blockY << BC1_BLOCK_SHIFT) + (sub >> BC1_BLOCK_SHIFT), height - 1);
+                    block[sub] = source.getColor(x, y);
+                }
+                internalEncodeBC1Block(
+                    block, 
+                    blockBuffer, 
+                    (blockX + blockY * xBlocks) * BC1_BLOCK_INTS
+                );
+            }
+        }
+    }
+
+    private static QTexture internalDownsample(QTexture src) {
+        // NOTE:
+        //  each texel is the box filtered average of the 2x2 source texels it
+        //  covers. odd source sizes repeat their last row or column
+        int srcWidth  = src.getWidth( );
+        int srcHeight = src.getHeight( );
+        QTexture dst  = new QTexture(
+            Math.max(1, srcWidth >> 1), 
+            Math.max(1, srcHeight >> 1), 
+            src.getLayout( )
+        );
+        for (int dstX = 0; dstX < dst.getWidth( ); dstX++) {
+            for (int dstY = 0; dstY < dst.getHeight( ); dstY++) {
+                int x0 = Math.min(dstX * 2, srcWidth - 1);
+                int x1 = Math.min(dstX * 2 + 1, srcWidth - 1);
+                int y0 = Math.min(dstY * 2, srcHeight - 1);
+                int y1 = Math.min(dstY * 2 + 1, srcHeight - 1);
+                dst.setColor(dstX, dstY, internalAverageColor(
+                    src.getColor(x0, y0), 
+                    src.getColor(x1, y0), 
+                    src.getColor(x0, y1), 
+                    src.getColor(x1, y1)
+                ));
+            }
+        }
+        return dst;
+    }
+
+    private static int internalAverageColor(int c0, int c1, int c2, int c3) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = 
+                ((c0 >>> shift) & 0xFF) + 
+                ((c1 >>> shift) & 0xFF) + 
+                ((c2 >>> shift) & 0xFF) + 
+                ((c3 >>> shift) & 0xFF);
+            result |= ((sum + 2) >> 2) << shift;
+        }
+        return result;
+    }
+
+    private static int[] internalBuildPalette(int[] colors, byte[] indiciesOut) {
+        // NOTE:
+        // - textures with at most MAX_PALETTE_SIZE colors are stored exactly
+        // - otherwise the palette is found by median cut. the box of texels
+        //   with the widest channel is repeatedly split at it's median in
+        //   that channel, and each final box's average color is it's entry
+        HashMap<Integer, Integer> exact = new HashMap<>( );
+        for (int color : colors) {
+            if (exact.containsKey(color)) { continue; }
+            if (exact.size( ) == MAX_PALETTE_SIZE) { 
+                exact = null;
+                break; 
+            }
+            exact.put(color, exact.size( ));
+        }
+        if (exact != null) {
+            int[] exactPalette = new int[exact.size( )];
+            for (int i = 0; i < colors.length; i++) {
+                int entry = exact.get(colors[i]);
+                exactPalette[entry] = colors[i];
+                indiciesOut[i] = (byte)entry;
+            }
+            return exactPalette;
+        }
+
+        // NOTE:
+        //  entries hold a texel index in their low 32 bits, and the channel
+        //  being split on above it, so boxes sort as plain longs
+        long[] entries    = new long[colors.length];
+        int[]  boxStart   = new int[MAX_PALETTE_SIZE];
+        int[]  boxEnd     = new int[MAX_PALETTE_SIZE];
+        int[]  boxRange   = new int[MAX_PALETTE_SIZE];
+        int[]  boxShift   = new int[MAX_PALETTE_SIZE];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = i;
+        }
+        boxEnd[0] = entries.length;
+        internalFindWidestChannel(colors, entries, 0, boxRange, boxShift, boxStart, boxEnd);
+
+        int boxCount = 1;
+        while (boxCount < MAX_PALETTE_SIZE) {
+            int split = 0;
+            for (int box = 1; box < boxCount; box++) {
+                if (boxRange[box] > boxRange[split]) { split = box; }
+            }
+            if (boxRange[split] == 0) { break; }
+
+            int start = boxStart[split];
+            int end   = boxEnd[split];
+            for (int i = start; i < end; i++) {
+                int texel  = (int)entries[i];
+                int channel = (colors[texel] >>> boxShift[split]) & 0xFF;
+                entries[i] = ((long)channel << 32) | texel;
+            }
+            Arrays.sort(entries, start, end);
+
+            int median = (start + end) >>> 1;
+            boxEnd[split]      = median;
+            boxStart[boxCount] = median;
+            boxEnd[boxCount]   = end;
+            internalFindWidestChannel(colors, entries, split, boxRange, boxShift, boxStart, boxEnd);
+            internalFindWidestChannel(colors, entries, boxCount, boxRange, boxShift, boxStart, boxEnd);
+            boxCount++;
+        }
+
+        int[] boxPalette = new int[boxCount];
+        for (int box = 0; box < boxCount; box++) {
+            long[] sums = new long[4];
+            for (int i = boxStart[box]; i < boxEnd[box]; i++) {
+                int texel = (int)entries[i];
+                for (int channel = 0; channel < 4; channel++) {
+                    sums[channel] += (colors[texel] >>> (channel * 8)) & 0xFF;
+                }
+                indiciesOut[texel] = (byte)box;
+            }
+            int count = boxEnd[box] - boxStart[box];
+            for (int channel = 0; channel < 4; channel++) {
+                int average = (int)((sums[channel] + (count >> 1)) / count);
+                boxPalette[box] |= average << (channel * 8);
+            }
+        }
+        return boxPalette;
+    }
+
+    private static void internalFindWidestChannel(
+        int[]  colors, 
+        long[] entries, 
+        int    box, 
+        int[]  boxRangeOut, 
+        int[]  boxShiftOut, 
+        int[]  boxStart, 
+        int[]  boxEnd
+    ) {
+        boxRangeOut[box] = 0;
+        boxShiftOut[box] = 0;
+        if (boxEnd[box] - boxStart[box] < 2) { return; }
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            int min = 0xFF;
+            int max = 0;
+            for (int i = boxStart[box]; i < boxEnd[box]; i++) {
+                int channel = (colors[(int)entries[i]] >>> shift) & 0xFF;
+                min = Math.min(min, channel);
+                max = Math.max(max, channel);
+            }
+            if (max - min > boxRangeOut[box]) {
+                boxRangeOut[box] = max - min;
+                boxShiftOut[box] = shift;
+            }
+        }
+    }
+
+    private static void internalEncodeBC1Block(int[] block, int[] blocksOut, int offset) {
+        // NOTE:
+        // - the endpoints are the 2 opaque texels furthest apart in RGB, and
+        //   every texel takes whichever of the 4 decoded colors is nearest
+        // - blocks with any texel below half alpha use the 3 color mode,
+        //   where color0 <= color1 and index 3 is transparent
+        boolean hasAlpha = false;
+        int endpoint0 = -1;
+        int endpoint1 = -1;
+        int farthest  = -1;
+        for (int i = 0; i < block.length; i++) {
+            if ((block[i] >>> 24) < 0x80) {
+                hasAlpha = true;
+                continue;
+            }
+            for (int j = i; j < block.length; j++) {
+                if ((block[j] >>> 24) < 0x80) { continue; }
+                int dist = internalColorDistance(block[i], block[j]);
+                if (dist > farthest) {
+                    farthest  = dist;
+                    endpoint0 = i;
+                    endpoint1 = j;
+                }
+            }
+        }
+
+        int color0 = (endpoint0 < 0) ? 0 : internalTo565(block[endpoint0]);
+        int color1 = (endpoint1 < 0) ? 0 : internalTo565(block[endpoint1]);
+        if (hasAlpha == (color0 > color1)) {
+            int temp = color0;
+            color0 = color1;
+            color1 = temp;
+        }
+
+        int endpoints = color0 | (color1 << 16);
+        int colorCount = hasAlpha ? 3 : 4;
+        int indicies   = 0;
+        for (int i = 0; i < block.length; i++) {
+            int index = 3;
+            if ((block[i] >>> 24) >= 0x80 || !hasAlpha) {
+                int nearest = Integer.MAX_VALUE;
+                for (int candidate = 0; candidate < colorCount; candidate++) {
+                    int dist = internalColorDistance(block[i], internalDecodeBC1(endpoints, candidate));
+                    if (dist < nearest) {
+                        nearest = dist;
+                        index   = candidate;
+                    }
+                }
+            }
+            indicies |= index << (i << 1);
+        }
+
+        blocksOut[offset]     = endpoints;
+        blocksOut[offset + 1] = indicies;
+    }
+
+    private static int internalColorDistance(int color0, int color1) {
+        int dist = 0;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int diff = ((color0 >>> shift) & 0xFF) - ((color1 >>> shift) & 0xFF);
+            dist += diff * diff;
+        }
+        return dist;
+    }
+
+    private static int internalTo565(int color) {
+        int r = (((color >>> 16) & 0xFF) * 31 + 127) / 255;
+        int g = (((color >>> 8) & 0xFF) * 63 + 127) / 255;
+        int b = ((color & 0xFF) * 31 + 127) / 255;
+        return (r << 11) | (g << 5) | b;
+    }
+
+    private static int internalFrom565(int color) {
+        int r = (color >>> 11) & 0x1F;
+        int g = (color >>> 5) & 0x3F;
+        int b = color & 0x1F;
+        return 
+            0xFF000000 | 
+            (((r << 3) | (r >>> 2)) << 16) | 
+            (((g << 2) | (g >>> 4)) << 8) | 
+            ((b << 3) | (b >>> 2));
+    }
+
+    private static int internalDecodeBC1(int endpoints, int index) {
+        int color0 = endpoints & 0xFFFF;
+        int color1 = endpoints >>> 16;
+        if (index == 0) { return internalFrom565(color0); }
+        if (index == 1) { return internalFrom565(color1); }
+
+        int rgb0 = internalFrom565(color0);
+        int rgb1 = internalFrom565(color1);
+        if (color0 <= color1) {
+            if (index == 3) { return BC1_TRANSPARENT; }
+            return internalMixColor(rgb0, rgb1, 1, 1, 2);
+        }
+        if (index == 2) { return internalMixColor(rgb0, rgb1, 2, 1, 3); }
+        return internalMixColor(rgb0, rgb1, 1, 2, 3);
+    }
+
+    private static int internalMixColor(int color0, int color1, int weight0, int weight1, int divisor) {
+        // NOTE:
+        //  divisor is only ever 2 or 3. weighted channels are at most 765,
+        //  where multiplying by 0xAAAB and shifting by 17 is exactly /3
+        int result = 0xFF000000;
+        for (int shift = 0; shift < 24; shift += 8) {
+            int channel = 
+                ((color0 >>> shift) & 0xFF) * weight0 + 
+                ((color1 >>> shift) & 0xFF) * weight1;
+            channel = (divisor == 2) ? (channel >>> 1) : ((channel * 0xAAAB) >>> 17);
+            result |= channel << shift;
+        }
+        return result;
+    }
+
+    private static int internalSpreadBits(int val) {
+        // NOTE:
+        //  moves bit n of a 16 bit value to bit 2n, leaving a 0 between each
+        return MORTON_SPREAD[val & 0xFF] | (MORTON_SPREAD[(val >> 8) & 0xFF] << 16);
+    }
+
+    private static int[] internalBuildMortonSpread( ) {
+        int[] spread = new int[256];
+        for (int val = 0; val < spread.length; val++) {
+            for (int bit = 0; bit < 8; bit++) {
+                spread[val] |= ((val >> bit) & 1) << (bit * 2);
+            }
+        }
+        return spread;
     }
 
     /////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
-    public int translateIndex(int x, int y) {
+    public final int translateIndex(int x, int y) {
+        if (layout == TextureLayout.Chunked) {
+            return translateChunkedIndex(x, y);
+        }
+        if (layout == TextureLayout.Morton) {
+            return translateMortonIndex(x, y);
+        }
+        return x + (y * width);
+    }
+
+    public final int translateMortonIndex(int x, int y) {
+        // NOTE:
+        //  only the larger dimension has bits above mortonBits, so adding
+        //  both high parts selects the square without knowing which it is
+        int offsetMinor = 
+            internalSpreadBits(x & mortonMask) | 
+            (internalSpreadBits(y & mortonMask) << 1);
+        int offsetMajor = ((x >> mortonBits) + (y >> mortonBits)) << (mortonBits << 1);
+        return offsetMajor + offsetMinor;
+    }
+
+    public final int translateChunkedIndex(int x, int y) {
         // NOTE:
         // - the texture encoding scheme is designed with cache locality in mind.
         //   typically, the next sampled pixel will be near to the first one, however,
@@ -78,21 +547,23 @@ public class QTexture extends QSampleable {
         // - the principle behind this encoding scheme is to subdivide the image into
         //   local chunks, so that when a nearby pixel is accessed, we wont have to move
         //   so many scanlines over
-        // - chunks are in dimensions of 4^n x 4^n so that we can do this quick bitwise/shift
+        // - chunks are in dimensions of 2^n x 2^n so that we can do this quick bitwise/shift
         //   tricks to speed up our translation calculations
-        // - (x, y) maps to chunk (x / 4^n, y / 4^n) and the sub-chunk index is just
-        //   (x mod 4^n, y mod 4^n)
+        // - (x, y) maps to chunk (x / 2^n, y / 2^n) and the sub-chunk index is just
+        //   (x mod 2^n, y mod 2^n)
         // - this requires that we occasionally allocate more memory to a texture than needed
         //   at times but the overhead is minimal.
+        // - n is chosen per texture, but never changes after construction, so
+        //   the shifts are loop invariant wherever this is inlined
 
-        int chunkX = x >> CHUNK_WIDTH_FAC_SHIFT;
-        int chunkY = y >> CHUNK_HEIGHT_FAC_SHIFT;
+        int chunkX = x >> chunkShift;
+        int chunkY = y >> chunkShift;
 
-        int chunkSubX = x & CHUNK_WIDTH_REMAINDER_MASK;
-        int chunkSubY = y & CHUNK_HEIGHT_REMAINDER_MASK;
+        int chunkSubX = x & chunkMask;
+        int chunkSubY = y & chunkMask;
 
-        int offsetMajor = (chunkX + (xChunks * chunkY)) << CHUNK_AREA_FAC_SHIFT;
-        int offsetMinor = chunkSubX + (chunkSubY << CHUNK_WIDTH_FAC_SHIFT);
+        int offsetMajor = (chunkX + (xChunks * chunkY)) << chunkAreaShift;
+        int offsetMinor = chunkSubX + (chunkSubY << chunkShift);
 
         return offsetMajor + offsetMinor;
     }
@@ -113,15 +584,157 @@ public class QTexture extends QSampleable {
         return yChunks;
     }
 
+    public int getChunkSize( ) {
+        return 1 << chunkShift;
+    }
+
+    public TextureLayout getLayout( ) {
+        return layout;
+    }
+
+    public TextureFormat getFormat( ) {
+        return format;
+    }
+
     public int[] getColorBuffer( ) {
         return colorBuffer;
     }
 
-    public int getColor(int x, int y) {
-        return colorBuffer[translateIndex(x, y)];
+    public int getPaletteSize( ) {
+        return (palette == null) ? 0 : palette.length;
+    }
+
+    public void buildMipmaps( ) {
+        int levelCount = 1;
+        for (int size = Math.max(width, height); size > 1; size >>= 1) {
+            levelCount++;
+        }
+
+        // NOTE:
+        //  compressed levels are each compressed from an uncompressed
+        //  downsample, so compression errors don't build up down the chain
+        mipLevels    = new QTexture[levelCount];
+        mipLevels[0] = this;
+        QTexture source = this;
+        for (int level = 1; level < levelCount; level++) {
+            source = internalDownsample(source);
+            mipLevels[level] = (format == TextureFormat.ARGB) ? source : new QTexture(source, format);
+        }
+    }
+
+    public boolean hasMipmaps( ) {
+        return mipLevels != null;
+    }
+
+    public int getMipLevelCount( ) {
+        return (mipLevels == null) ? 1 : mipLevels.length;
+    }
+
+    public QTexture getMipLevel(int level) {
+        if (level < 0 || level >= getMipLevelCount( )) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "mip level " + level + " is out of range"
+            );
+        }
+        return (level == 0) ? this : mipLevels[level];
+    }
+
+    @Override
+    public int sample(
+        float u,
+        float v,
+        float lod,
+        SampleType sampleType,
+        SampleFilter sampleFilter
+    ) {
+        if (mipLevels == null || sampleFilter == SampleFilter.Nearest) {
+            return super.sample(u, v, lod, sampleType, sampleFilter);
+        }
+
+        int maxLevel = mipLevels.length - 1;
+        switch (sampleFilter) {
+            case Bilinear:
+                return sampleBilinear(u, v, sampleType);
+
+            case NearestMip:
+                int nearLevel = Math.min((int)(lod + 0.5f), maxLevel);
+                return mipLevels[nearLevel].sample(u, v, sampleType);
+
+            case Trilinear:
+                // NOTE:
+                //  lod >= 0 always, so truncating it is it's floor
+                int lowLevel  = Math.min((int)lod, maxLevel);
+                int levelFrac = (int)((lod - lowLevel) * BILINEAR_WEIGHT_ONE);
+                int lowColor  = mipLevels[lowLevel].sampleBilinear(u, v, sampleType);
+                if (lowLevel == maxLevel || levelFrac <= 0) { return lowColor; }
+
+                int highColor = mipLevels[lowLevel + 1].sampleBilinear(u, v, sampleType);
+                return lerpColor(lowColor, highColor, levelFrac);
+
+            default:
+                return super.sample(u, v, lod, sampleType, sampleFilter);
+        }
+    }
+
+    public final int getColor(int x, int y) {
+        if (format == TextureFormat.ARGB) {
+            return colorBuffer[translateIndex(x, y)];
+        }
+        if (format == TextureFormat.Paletted) {
+            return palette[indexBuffer[translateIndex(x, y)] & 0xFF];
+        }
+
+        int block = ((x >> BC1_BLOCK_SHIFT) + (y >> BC1_BLOCK_SHIFT) * xBlocks) * BC1_BLOCK_INTS;
+        int sub   = (x & BC1_BLOCK_MASK) + ((y & BC1_BLOCK_MASK) << BC1_BLOCK_SHIFT);
+        int index = (blockBuffer[block + 1] >>> (sub << 1)) & 3;
+        return internalDecodeBC1(blockBuffer[block], index);
+    }
+
+    @Override
+    protected int blendFootprint(int x0, int x1, int y0, int y1, int weightX, int weightY) {
+        if (format != TextureFormat.ARGB) {
+            return super.blendFootprint(x0, x1, y0, y1, weightX, weightY);
+        }
+
+        // NOTE:
+        // - when the 2x2 footprint doesn't wrap and doesn't cross a chunk
+        //   edge, it's 2 pairs of neighbouring texels one chunk row apart,
+        //   so only the first texel's index needs translating
+        // - footprints which wrap, cross a chunk edge or are Morton ordered
+        //   translate every texel
+        int index00 = translateIndex(x0, y0);
+        int index10, index01, index11;
+        if (layout == TextureLayout.Chunked &&
+            x1 == x0 + 1 && (x0 & chunkMask) != chunkMask &&
+            y1 == y0 + 1 && (y0 & chunkMask) != chunkMask) {
+            index10 = index00 + 1;
+            index01 = index00 + (chunkMask + 1);
+            index11 = index01 + 1;
+        } else if (layout == TextureLayout.Linear && x1 == x0 + 1 && y1 == y0 + 1) {
+            index10 = index00 + 1;
+            index01 = index00 + width;
+            index11 = index01 + 1;
+        } else {
+            index10 = translateIndex(x1, y0);
+            index01 = translateIndex(x0, y1);
+            index11 = translateIndex(x1, y1);
+        }
+
+        return blendColors(
+            colorBuffer[index00], colorBuffer[index10], 
+            colorBuffer[index01], colorBuffer[index11], 
+            weightX, weightY
+        );
     }
 
     public void setColor(int x, int y, int color) {
+        if (format != TextureFormat.ARGB) {
+            throw new QException(
+                PointOfError.BadState, 
+                "can't write to a " + format + " texture"
+            );
+        }
         colorBuffer[translateIndex(x, y)] = color;
     }
 
@@ -170,21 +783,58 @@ public class QTexture extends QSampleable {
 
     /////////////////////////////////////////////////////////////////
     // CONSTRUCTORS
+    public QTexture(QTexture source, TextureFormat format) {
+        // NOTE:
+        //  compresses source into format. compressed sources are decoded
+        //  first, and an ARGB format makes an uncompressed copy
+        if (format == TextureFormat.ARGB) {
+            colorBuffer = new int[initLayoutFrom(source)];
+            source.copyTo(this);
+            return;
+        }
+
+        if (format == TextureFormat.Paletted) {
+            initPaletted(source);
+        } else {
+            initBC1(source);
+        }
+        this.format = format;
+    }
+
     public QTexture(QTexture toCopy) {
-        initColorBuffer(toCopy.width, toCopy.height);
-        toCopy.copyTo(this);
+        this(toCopy, TextureFormat.ARGB);
     }
     
     public QTexture(int width, int height) {
-        initColorBuffer(width, height);
+        this(width, height, DEFAULT_LAYOUT);
+    }
+
+    public QTexture(int width, int height, TextureLayout layout) {
+        this(width, height, layout, DEFAULT_CHUNK_SIZE);
+    }
+
+    public QTexture(int width, int height, TextureLayout layout, int chunkSize) {
+        initColorBuffer(width, height, layout, chunkSize);
     }
 
     public QTexture(int width, int height, QSampleable.ColorMapSpacialFunction initFunc) {
-        initColorBuffer(width, height);
+        initColorBuffer(width, height, DEFAULT_LAYOUT, DEFAULT_CHUNK_SIZE);
         mapColorSpacial(initFunc);
     }
 
     public QTexture(String imgPath) {
+        this(imgPath, DEFAULT_LAYOUT, false);
+    }
+
+    public QTexture(String imgPath, boolean buildMipmaps) {
+        this(imgPath, DEFAULT_LAYOUT, buildMipmaps);
+    }
+
+    public QTexture(String imgPath, TextureLayout layout, boolean buildMipmaps) {
+        this(imgPath, layout, DEFAULT_CHUNK_SIZE, buildMipmaps);
+    }
+
+    public QTexture(String imgPath, TextureLayout layout, int chunkSize, boolean buildMipmaps) {
 
         File imgFile = null;
         try {
@@ -221,12 +871,16 @@ public class QTexture extends QSampleable {
 
         // grab ARGB colors, init texture and copy
         int[] colorsARGB = ((DataBufferInt)(bufferARGB.getRaster().getDataBuffer())).getData();
-        initColorBuffer(bufferARGB.getWidth(), bufferARGB.getHeight());
+        initColorBuffer(bufferARGB.getWidth(), bufferARGB.getHeight(), layout, chunkSize);
         for (int copyX = 0; copyX < bufferARGB.getWidth(); copyX++) {
             for (int copyY = 0; copyY < bufferARGB.getHeight(); copyY++) {
                 int invertY = (bufferARGB.getHeight() - copyY - 1);
                 setColor(copyX, copyY, colorsARGB[copyX + (invertY * bufferARGB.getWidth())]);
             }
         }
+
+        if (buildMipmaps) {
+            buildMipmaps( );
+        }
     }
 }
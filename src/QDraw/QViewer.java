@@ -4,11 +4,16 @@
 
 package QDraw;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import QDraw.QException.PointOfError;
+import QDraw.QSampleable.SampleFilter;
 import QDraw.QSampleable.SampleType;
 import QDraw.QShader.ShaderRequirement;
+import QDraw.QShader.VertexBatchContext;
 import QDraw.QShader.ShaderRequirement.RequirementType;
 
 public final class QViewer extends QEncoding {
@@ -33,16 +38,74 @@ public final class QViewer extends QEncoding {
     public static final float DEFAULT_VIEWBOUND_TOP    = 1.0f;
 
     private static final float BACKFACE_CULL_MIN_DOT  = 0.0f;
+    private static final int   FRUSTUM_OUTSIDE        = 0;
+    private static final int   FRUSTUM_INTERSECTS     = 1;
+    private static final int   FRUSTUM_INSIDE         = 2;
+    private static final int   FRUSTUM_PLANES         = 5;
+    private static final int   FRUSTUM_PLANE_CMPS     = 4; // <nx ny nz w>
+    private static final int   AABB_CORNERS           = 8;
     private static final float DEPTH_TEST_EPSILON     = 0.002f;
     private static final int   VERTS_PER_TRI = 3;
 
+    // note: the guard band is the view bounds scaled about their center.
+    //       triangles inside it are rasterized as is, and only those
+    //       reaching outside of it are clipped against it's side planes
+    private static final float GUARD_BAND_SCALE    = 8.0f;
+    private static final int   SIDE_PLANES         = 4;
+    private static final int   SIDE_PLANE_LEFT     = 0;
+    private static final int   SIDE_PLANE_RIGHT    = 1;
+    private static final int   SIDE_PLANE_BOTTOM   = 2;
+    private static final int   SIDE_PLANE_TOP      = 3;
+    private static final int   CLIP_MAX_POLY_VERTS = VERTS_PER_TRI + SIDE_PLANES;
+    private static final int   GUARD_MASK_OFFSCREEN = -1;
+
     public static final int SHADER_UNIFORM_SLOTS       = 16;
     public static final int SHADER_TEXTURE_SLOTS       = 16;
     public static final int SHADER_VERTEX_ATTRIB_SLOTS = 8;
 
+    public static final int   LIGHT_TILE_SIZE              = 16;
+    public static final float DEFAULT_LIGHT_CULL_THRESHOLD = 1.0f / 255.0f;
+
+    public static final int DEFAULT_BIN_TILE_SIZE = 64;
+    private static final int BIN_INITIAL_CAPACITY = 64;
+
+    // note: RASTER_BLOCK_SIZE must be power of 2, and matches the depth tile
+    //       size so that every raster block covers exactly one depth tile
+    private static final int   RASTER_BLOCK_SIZE  = QRenderBuffer.DEPTH_TILE_SIZE;
+    private static final int   RASTER_BLOCK_SHIFT = Integer.numberOfTrailingZeros(RASTER_BLOCK_SIZE);
+    private static final int   RASTER_BLOCK_MASK  = ~(RASTER_BLOCK_SIZE - 1);
+    private static final int   RASTER_BLOCK_SPAN  = RASTER_BLOCK_SIZE - 1;
+    private static final float PIXEL_CENTER       = 0.5f;
+
+    // note: screenspace verticies are snapped to 1 / SUBPIXEL_SCALE of a pixel
+    //       before setup. the guard band keeps every coordinate within a few
+    //       screen widths, which keeps the edge steps of a raster block
+    //       within an int at SUBPIXEL_BITS of precision
+    private static final int   SUBPIXEL_BITS      = 4;
+    private static final int   SUBPIXEL_SCALE     = 1 << SUBPIXEL_BITS;
+    private static final int   SUBPIXEL_HALF      = SUBPIXEL_SCALE >> 1;
+    private static final int   EDGES_PER_TRI      = 3;
+    private static final int   QUAD_SIZE          = 2;
+    private static final int   QUAD_PIXELS        = QUAD_SIZE * QUAD_SIZE;
+    private static final int   BLOCK_OUTSIDE      = 0;
+    private static final int   BLOCK_PARTIAL      = 1;
+    private static final int   BLOCK_INSIDE       = 2;
+    private static final float HIZ_REJECT_EPSILON = 0.0001f;
+
+    private static final int RASTER_PASS_FULL  = 0;
+    private static final int RASTER_PASS_DEPTH = 1;
+    private static final int RASTER_PASS_SHADE = 2;
+
+    private static final int VERTEX_CACHE_EMPTY      = -1;
+    private static final int VERTEX_CACHE_HASH_PRIME = 0x9E3779B1;
+
+    private static final QSpanRaster VECTOR_RASTER           = internalLoadVectorRaster( );
+    private static final boolean     VECTOR_RASTER_AVAILABLE = (VECTOR_RASTER != null);
+
     public static final RenderMode DEFAULT_RENDER_MODE   = RenderMode.Textured;
     public static final QColor     DEFAULT_FILL_COLOR    = QColor.White();
     public static final SampleType DEFAULT_SAMPLE_TYPE   = SampleType.Repeat;
+    public static final SampleFilter DEFAULT_SAMPLE_FILTER = SampleFilter.Nearest;
     public static final int DEFAULT_SHADER_POSITION_SLOT = 0;
     public static final int DEFAULT_SHADER_UV_SLOT       = 1;
     public static final int DEFAULT_SHADER_NORMAL_SLOT   = 2;
@@ -78,6 +141,16 @@ public final class QViewer extends QEncoding {
             );
         }
 
+        public boolean hasBatchedVertexShader( ) {
+            return true;
+        }
+
+        public void vertexShaderBatch(
+            VertexBatchContext context
+        ) {
+            internalTransformBatchPositions(context);
+        }
+
         public QColor fragmentShader(
             FragmentShaderContext context
         ) {
@@ -124,14 +197,25 @@ public final class QViewer extends QEncoding {
             return QMatrix4x4.multiply(mtr, pos);
         }
 
+        public boolean hasBatchedVertexShader( ) {
+            return true;
+        }
+
+        public void vertexShaderBatch(
+            VertexBatchContext context
+        ) {
+            internalTransformBatchPositions(context);
+            forwardAttributeToFragShader(context, DEFAULT_SHADER_UV_SLOT);
+        }
+
         public QColor fragmentShader(
             FragmentShaderContext context
         ) {
             QSampleable tex = context.textures[DEFAULT_SHADER_TEXTURE_SLOT];
-            float[] uv      = new float[2];
+            float[] uv      = context.scratch;
             getOutputFromVertShader(context, DEFAULT_SHADER_UV_SLOT, uv);
 
-            return new QColor(tex.sample(uv[0], uv[1], sampleType));
+            return context.outputColor.set(internalSampleTexture(tex, context, uv[0], uv[1]));
         }
     };
 
@@ -173,12 +257,23 @@ public final class QViewer extends QEncoding {
             );
         }
 
+        public boolean hasBatchedVertexShader( ) {
+            return true;
+        }
+
+        public void vertexShaderBatch(
+            VertexBatchContext context
+        ) {
+            internalTransformBatchPositions(context);
+            internalTransformBatchNormals(context);
+        }
+
         public QColor fragmentShader(
             FragmentShaderContext context
         ) {
-            float[] normal = new float[VCTR_NUM_CMPS];
+            float[] normal = context.scratch;
             getOutputFromVertShader(context, DEFAULT_SHADER_NORMAL_SLOT, normal);
-            return new QColor(
+            return context.outputColor.set(
                 (int)((1.0f + normal[VCTR_INDEX_X]) * 127.0f),
                 (int)((1.0f + normal[VCTR_INDEX_Y]) * 127.0f),
                 (int)((1.0f + normal[VCTR_INDEX_Z]) * 127.0f)
@@ -248,37 +343,68 @@ public final class QViewer extends QEncoding {
             return pos;
         }
 
+        public boolean hasBatchedVertexShader( ) {
+            return true;
+        }
+
+        public void vertexShaderBatch(
+            VertexBatchContext context
+        ) {
+            float[][] posns = internalTransformBatchPositions(context);
+            float[][] posnsOut = getBatchOutputToFragShader(
+                context, 
+                DEFAULT_SHADER_POSITION_SLOT, 
+                VCTR_NUM_CMPS
+            );
+            for (int comp = 0; comp < VCTR_NUM_CMPS; comp++) {
+                System.arraycopy(posns[comp], 0, posnsOut[comp], 0, context.count);
+            }
+            forwardAttributeToFragShader(context, DEFAULT_SHADER_UV_SLOT);
+            internalTransformBatchNormals(context);
+        }
+
         public QColor fragmentShader(
             FragmentShaderContext context
         ) {
             QSampleable tex = context.textures[DEFAULT_SHADER_TEXTURE_SLOT];
             QMaterial   mat = (QMaterial)context.uniforms[DEFAULT_SHADER_MATERIAL_SLOT];
-            QLight[] lights = (QLight[])context.uniforms[DEFAULT_SHADER_LIGHTS_SLOT];
-
-            float[] pos    = new float[3];
-            float[] uv     = new float[2];
-            float[] normal = new float[3];
-            getOutputFromVertShader(context, DEFAULT_SHADER_POSITION_SLOT, pos);
-            getOutputFromVertShader(context, DEFAULT_SHADER_UV_SLOT, uv);
-            getOutputFromVertShader(context, DEFAULT_SHADER_NORMAL_SLOT, normal);
+            QLight[] lights = getLights(context, DEFAULT_SHADER_LIGHTS_SLOT);
 
-            QColor texSampleColor = QColor.White( );
+            // NOTE:
+            //  pos, uv and normal are all kept in the context scratch so that
+            //  no temporary arrays or vectors are created per fragment
+            final int POS_OFST    = 0;
+            final int UV_OFST     = POS_OFST + VCTR_NUM_CMPS;
+            final int NORMAL_OFST = UV_OFST + 2;
+            float[] scratch = context.scratch;
+            getOutputFromVertShader(context, DEFAULT_SHADER_POSITION_SLOT, scratch, POS_OFST);
+            getOutputFromVertShader(context, DEFAULT_SHADER_UV_SLOT, scratch, UV_OFST);
+            getOutputFromVertShader(context, DEFAULT_SHADER_NORMAL_SLOT, scratch, NORMAL_OFST);
+
+            float invNormalMag = 1.0f / QMath.mag3(NORMAL_OFST, scratch);
+            QMath.mult3(NORMAL_OFST, scratch, invNormalMag);
+
+            int texSampleColor = 0xFFFFFFFF;
             if (tex != null) {
-                texSampleColor.set(tex.sample(uv[0], uv[1], sampleType));
-            }
-
-            for (QLight light : lights) {
-                QVector3 dirFaceToLight = QVector3.sub(
-                    light.position,
-                    new QVector3(pos)
+                texSampleColor = internalSampleTexture(
+                    tex, 
+                    context, 
+                    scratch[UV_OFST], 
+                    scratch[UV_OFST + 1]
                 );
-
-                float distToLight = dirFaceToLight.fastMagnitude( );
-                dirFaceToLight.multiply3(1.0f / distToLight);
-
-                // TODO: finish
             }
 
+            return context.outputColor.set(
+                internalShadeMaterial(
+                    mat, 
+                    lights, 
+                    texSampleColor, 
+                    scratch, 
+                    POS_OFST, 
+                    scratch, 
+                    NORMAL_OFST
+                )
+            );
         }
     };
 
@@ -294,15 +420,70 @@ public final class QViewer extends QEncoding {
     private RenderMode    renderMode   = DEFAULT_RENDER_MODE;
     private QColor        fillColor    = DEFAULT_FILL_COLOR;
     private SampleType    sampleType   = DEFAULT_SAMPLE_TYPE;
+    private SampleFilter  sampleFilter = DEFAULT_SAMPLE_FILTER;
 
     private Object[]   slotUniforms      = new Object[SHADER_UNIFORM_SLOTS];
+    private Object[]   tiledUniforms     = new Object[SHADER_UNIFORM_SLOTS];
+    private Object[]   drawUniforms      = slotUniforms;
     private QSampleable[] slotTextures   = new QSampleable[SHADER_TEXTURE_SLOTS];
+    private QSampler      drawSampler    = null;
     private QAttribIndexer[] slotAttribs = new QAttribIndexer[SHADER_VERTEX_ATTRIB_SLOTS];  
 
+    private boolean             binnedRendering = false;
+    private int                 binTileSize     = DEFAULT_BIN_TILE_SIZE;
+    private ForkJoinPool        binPool         = ForkJoinPool.commonPool( );
+    private int                 binTilesX       = 0;
+    private int                 binTilesY       = 0;
+    private TileBin[]           bins            = new TileBin[0];
+    private ArrayList<SetupTri> setupTris       = new ArrayList<>( );
+    private ArrayList<SetupTri> setupPool       = new ArrayList<>( );
+    private QShader             drawShader      = null;
+    private boolean             vertexCaching   = true;
+    private boolean             objectSpaceCull = true;
+    private boolean             frustumCull     = true;
+    private boolean             clusterCull     = true;
+    private QMesh               currentMesh     = null;
+    private float[]             frustumPlanes   = new float[FRUSTUM_PLANES * FRUSTUM_PLANE_CMPS];
+    private float[]             boundsCorner    = QMath.new3( );
+    private float[]             boundsCenter    = QMath.new3( );
+    private int[]               boundsOutside   = new int[FRUSTUM_PLANES];
+    private float[]             objectEye       = QMath.new3( );
+    private float[]             toCluster       = QMath.new3( );
+    private float[]             clusterCenter   = QMath.new3( );
+    private float[]             viewSideBounds  = new float[SIDE_PLANES];
+    private float[]             guardSideBounds = new float[SIDE_PLANES];
+    private boolean[]           triCulled       = new boolean[0];
+    private boolean             vectorRaster    = false;
+    private boolean             hierarchicalZ   = true;
+    private boolean             depthPrepass    = false;
+    private int[]               prepassWinners  = new int[0];
+    private int                 lastPrepassID   = 0;
+    private boolean             deferredShading = false;
+    private boolean             deferredDraw    = false;
+    private int                 drawMaterialID  = QGBuffer.NO_MATERIAL;
+    private DeferredMaterial    drawMaterial    = null;
+    private QGBuffer            drawGBuffer     = null;
+    private ArrayList<DeferredMaterial> deferredMaterials = new ArrayList<>( );
+
+    private QLight[]            tiledLights     = null;
+    private float               lightCullThreshold = DEFAULT_LIGHT_CULL_THRESHOLD;
+    private boolean             lightTilesDirty = true;
+    private int                 lightTilesX     = 0;
+    private int                 lightTilesY     = 0;
+    private QLight[][]          lightTiles      = null;
+    private VertexCache         vertexCache     = new VertexCache( );
+    private VertexBatchContext  vertexBatch     = new VertexBatchContext( );
+
+    private final ThreadLocal<RasterContext> rasterContexts = 
+        ThreadLocal.withInitial(RasterContext::new);
+    private final ThreadLocal<ClipContext>   clipContexts   = 
+        ThreadLocal.withInitial(ClipContext::new);
+
     /////////////////////////////////////////////////////////////////
     // PUBLIC METHODS
     public void setNearClip(float val) {
         nearClip = Math.min(MIN_NEAR_CLIP, val);
+        lightTilesDirty = true;
     }
 
     public void setViewBounds(float left, float right, float bottom, float top) {
@@ -310,6 +491,7 @@ public final class QViewer extends QEncoding {
         viewRight  = right;
         viewBottom = bottom;
         viewTop    = top;
+        lightTilesDirty = true;
     }
 
     public void setRenderMode(RenderMode mode) {
@@ -320,6 +502,15 @@ public final class QViewer extends QEncoding {
         sampleType = _type;
     }
 
+    public void setSampleFilter(SampleFilter _filter) {
+        // NOTE:
+        // - the default shaders choose a texture's mip level from the
+        //   derivatives of their uvs. NearestMip and Trilinear only change
+        //   the output for textures which have built mipmaps, while
+        //   Bilinear always samples the base level
+        sampleFilter = _filter;
+    }
+
     public void setFillColor(QColor _color) {
         fillColor.set(_color);
     }
@@ -328,6 +519,189 @@ public final class QViewer extends QEncoding {
         customShader = _shader;
     }
 
+    public static boolean isVectorRasterizationAvailable( ) {
+        return VECTOR_RASTER_AVAILABLE;
+    }
+
+    public void setVectorRasterization(boolean enabled) {
+        // NOTE:
+        // - when enabled and QVectorRaster was built and can be loaded (see
+        //   QSpanRaster), coverage, depth testing and input interpolation are
+        //   done a whole block row at a time with SIMD. otherwise the scalar
+        //   rasterizer is used.
+        //   fragment shaders are still called once per fragment
+        vectorRaster = enabled;
+    }
+
+    public void setHierarchicalDepth(boolean enabled) {
+        // NOTE:
+        // - when enabled, triangles and raster blocks which are entirely
+        //   behind the render target's depth tiles are skipped before any
+        //   per pixel work is done. output is unchanged
+        hierarchicalZ = enabled;
+    }
+
+    public void setDepthPrepass(boolean enabled) {
+        // NOTE:
+        // - when enabled, each draw is rasterized twice. the first pass only
+        //   writes depth, and the second only calls the fragment shader for
+        //   the triangle which last passed the depth test at each pixel. so
+        //   each pixel is shaded at most once per draw, by the same fragment
+        //   forward rendering would keep, even where triangles tie on depth
+        // - fragments are assumed to be opaque. a fragment discarded by it's
+        //   alpha will still have occluded whatever was behind it
+        depthPrepass = enabled;
+    }
+
+    public void setDeferredShading(boolean enabled) {
+        // NOTE:
+        // - when enabled, Material mode draws only write position, normal,
+        //   uv and a material id to the render target's G-buffer. nothing
+        //   is lit until shadeDeferred is called, which lights every visible
+        //   pixel once with the material, texture and lights it was drawn with
+        deferredShading = enabled;
+    }
+
+    public void shadeDeferred( ) {
+        QGBuffer gBuffer = renderTarget.getGBuffer( );
+        if (gBuffer == null || deferredMaterials.isEmpty( )) { 
+            deferredMaterials.clear( );
+            return; 
+        }
+
+        int pixelCount = renderTarget.getWidth( ) * renderTarget.getHeight( );
+        try {
+            if (binnedRendering) {
+                binPool.invoke(new DeferredLightTask(gBuffer, 0, pixelCount));
+            } else {
+                internalShadeDeferredRange(gBuffer, 0, pixelCount);
+            }
+        } finally {
+            deferredMaterials.clear( );
+        }
+    }
+
+    public void setTiledLights(QLight[] lights) {
+        // NOTE:
+        // - registers viewspace point lights which are binned into
+        //   LIGHT_TILE_SIZE screen tiles by the sphere in which their falloff
+        //   stays above the cull threshold. fragment shaders then only see the
+        //   lights of their tile through FragmentShaderContext.tileLights
+        // - lights are binned lazily, so this must be called again after any
+        //   light is moved. null removes all tiled lights
+        tiledLights     = (lights == null) ? null : lights.clone( );
+        lightTilesDirty = true;
+    }
+
+    public void setLightCullThreshold(float minFalloff) {
+        if (minFalloff <= 0.0f) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "light cull threshold must be > 0. Given was " + minFalloff
+            );
+        }
+        lightCullThreshold = minFalloff;
+        lightTilesDirty    = true;
+    }
+
+    public int getLightTilesX( ) {
+        internalEnsureLightTiles( );
+        return lightTilesX;
+    }
+
+    public int getLightTilesY( ) {
+        internalEnsureLightTiles( );
+        return lightTilesY;
+    }
+
+    public QLight[] getTileLights(int tileX, int tileY) {
+        internalEnsureLightTiles( );
+        if (lightTiles == null) {
+            throw new QException(
+                PointOfError.BadState, 
+                "No tiled lights set"
+            );
+        }
+        if (tileX < 0 || tileX >= lightTilesX || tileY < 0 || tileY >= lightTilesY) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "light tile (" + tileX + ", " + tileY + ") is out of bounds"
+            );
+        }
+        return lightTiles[tileX + (tileY * lightTilesX)];
+    }
+
+    public void setBinnedRendering(boolean enabled) {
+        // NOTE:
+        // - when enabled, each draw is split into screen tiles which are
+        //   rasterized in parallel on binPool. output is identical to the
+        //   serial path, but fragment shaders will be called concurrently
+        //   and so custom shaders must not write to shared state
+        binnedRendering = enabled;
+    }
+
+    public void setVertexCaching(boolean enabled) {
+        // NOTE:
+        // - when enabled, each unique combination of attribute indicies is
+        //   only run through the vertex shader once per draw. vertex shaders
+        //   are expected to only depend on their inputs, uniforms and textures
+        vertexCaching = enabled;
+    }
+
+    public void setObjectSpaceCulling(boolean enabled) {
+        // NOTE:
+        // - when enabled, drawMesh culls backfaces against the mesh's face
+        //   planes before vertex shading, so verticies only used by backfaces
+        //   are never shaded. only applies to the built in render modes, as
+        //   custom vertex shaders aren't guaranteed to be a plain transform
+        objectSpaceCull = enabled;
+    }
+
+    public void setFrustumCulling(boolean enabled) {
+        // NOTE:
+        // - when enabled, drawMesh tests the mesh's bounding sphere and AABB
+        //   against the view frustum. meshes fully outside are rejected
+        //   without shading anything, and meshes fully inside skip per
+        //   triangle near plane clipping. like object space culling, this
+        //   only applies to the built in render modes
+        frustumCull = enabled;
+    }
+
+    public void setClusterCulling(boolean enabled) {
+        // NOTE:
+        // - when enabled, meshes which have built clusters (QMesh.buildClusters)
+        //   have whole clusters culled against the frustum and their normal
+        //   cone before vertex shading. like object space culling, this only
+        //   applies to the built in render modes
+        clusterCull = enabled;
+    }
+
+    public void setBinTileSize(int size) {
+        // NOTE:
+        //  bins must be made of whole raster blocks, which are also the
+        //  render target's depth tiles. a block split between two bins would
+        //  be rasterized by both of their threads at once, racing on it's
+        //  depth tile
+        if (size <= 0 || (size % RASTER_BLOCK_SIZE) != 0) {
+            throw new QException(
+                PointOfError.InvalidParameter, 
+                "bin tile size must be a multiple of " + RASTER_BLOCK_SIZE + 
+                " and > 0. Given was " + size
+            );
+        }
+        binTileSize = size;
+    }
+
+    public void setBinPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new QException(
+                PointOfError.NullParameter, 
+                "bin pool cannot be null"
+            );
+        }
+        binPool = pool;
+    }
+
     public void setUniformSlot(
         int    slot,
         Object uniform
@@ -382,6 +756,10 @@ public final class QViewer extends QEncoding {
     public void clearFrame( ) {
         renderTarget.clearColorBuffer();
         renderTarget.clearDepthBuffer();
+        if (renderTarget.getGBuffer( ) != null) {
+            renderTarget.getGBuffer( ).clear( );
+        }
+        deferredMaterials.clear( );
     }
 
     public void draw( ) {
@@ -394,9 +772,12 @@ public final class QViewer extends QEncoding {
         setVertexAttribSlot(DEFAULT_SHADER_POSITION_SLOT, mesh.getPosIndexer( ));
         setVertexAttribSlot(DEFAULT_SHADER_UV_SLOT, mesh.getUVIndexer( ));
         setVertexAttribSlot(DEFAULT_SHADER_NORMAL_SLOT, mesh.getNormalIndexer( ));
+        currentMesh = mesh;
 
         draw( );
 
+        currentMesh = null;
+
         clearTextureSlots( );
         clearUniformSlots( );
         clearVertexAttribSlots( );
@@ -417,35 +798,59 @@ public final class QViewer extends QEncoding {
             QMath.mult2(posn, -posn[VCTR_INDEX_Z]);
         }
 
-        public void findClippedShaderOutputs(
-            Vertex vISrc,
-            Vertex vFSrc,
-            float  factor
+        public void shapeOutputs(float[][] format) {
+            // NOTE:
+            //  only used by clip verticies, which own their shader outputs.
+            //  buffers are only reallocated when the output format changes,
+            //  which is at most once per draw
+            if (shaderOutputs == null || shaderOutputs.length != format.length) {
+                shaderOutputs = new float[format.length][];
+            }
+            for (int i = 0; i < format.length; i++) {
+                if (format[i] == null) {
+                    shaderOutputs[i] = null;
+                    continue;
+                }
+                if (shaderOutputs[i] == null || shaderOutputs[i].length != format[i].length) {
+                    shaderOutputs[i] = new float[format[i].length];
+                }
+            }
+        }
+
+        public void copyFrom(Vertex src) {
+            QMath.copy3(posn, src.posn);
+            shapeOutputs(src.shaderOutputs);
+            for (int i = 0; i < shaderOutputs.length; i++) {
+                if (shaderOutputs[i] == null) { continue; }
+                System.arraycopy(src.shaderOutputs[i], 0, shaderOutputs[i], 0, shaderOutputs[i].length);
+            }
+        }
+
+        public void setClipped(
+            Vertex  vISrc,
+            Vertex  vFSrc,
+            float   factor,
+            float[] clipPosn
         ) {
             // NOTE:
             // - vISrc and vFSrc should have identically formatted shader outputs,
             //   that is, the slots are consistent in usage and component count,
-            //   so when initializing the new shader outputs, we arbitrarily use vISrc
-            //   as a reference
-            // - vISrc or vFSrc might actually be THIS vertex, so we calculate everything
-            //   to an auxillary buffer before updating shaderOutputs
-            float[][] tempShaderOutputs = new float[vISrc.shaderOutputs.length][];
+            //   so vISrc is arbitrarily used as a reference
+            // - this must be a clip vertex, never vISrc or vFSrc themselves
+            QMath.copy3(posn, clipPosn);
+            shapeOutputs(vISrc.shaderOutputs);
+
             float facI = 1.0f - factor;
             float facF = factor;
+            for (int i = 0; i < shaderOutputs.length; i++) {
+                if (shaderOutputs[i] == null) { continue; }
 
-            for (int i = 0; i < tempShaderOutputs.length; i++) {
-                
-                if (vISrc.shaderOutputs[i] == null) { continue; }
-                tempShaderOutputs[i] = new float[vISrc.shaderOutputs[i].length];
-
-                for (int comp = 0; comp < tempShaderOutputs[i].length; comp++) {
-                    tempShaderOutputs[i][comp] = 
+                for (int comp = 0; comp < shaderOutputs[i].length; comp++) {
+                    shaderOutputs[i][comp] = 
                         vISrc.shaderOutputs[i][comp] * facI + 
                         vFSrc.shaderOutputs[i][comp] * facF;
                 }
             }
-            
-            shaderOutputs = tempShaderOutputs;
         }
 
         /////////////////////////////////////////////////////////////////
@@ -453,32 +858,6 @@ public final class QViewer extends QEncoding {
         public Vertex( ) {
             posn = QMath.new3( );
         }
-
-        public Vertex(Vertex toCopy) {
-            posn = QMath.new3();
-            QMath.copy3(
-                posn, 
-                toCopy.posn
-            );
-
-            // NOTE:
-            // toCopy could be THIS vertex, so create a temp before assinging
-            float[][] tempShaderOutputs = new float[toCopy.shaderOutputs.length][];
-            for (int i = 0; i < tempShaderOutputs.length; i++) {
-                if (toCopy.shaderOutputs[i] == null) { continue; }
-
-                tempShaderOutputs[i] = new float[toCopy.shaderOutputs[i].length];
-                System.arraycopy(
-                    toCopy.shaderOutputs[i], 
-                    0, 
-                    tempShaderOutputs[i], 
-                    0, 
-                    toCopy.shaderOutputs[i].length
-                );
-            }
-
-            shaderOutputs = tempShaderOutputs;
-        }
     }
 
     private static class Triangle {
@@ -496,12 +875,6 @@ public final class QViewer extends QEncoding {
 
         /////////////////////////////////////////////////////////////////
         // PUBLIC METHODS
-        public void swapVerts(int v0, int v1) {
-            Vertex temp = verts[v0];
-            verts[v0]   = verts[v1];
-            verts[v1]   = temp;
-        }
-
         public float[] getPosn(int vertNum) {
             return verts[vertNum].posn;
         }
@@ -540,134 +913,676 @@ public final class QViewer extends QEncoding {
             triNum = _num;
         }
 
-        public Triangle(Triangle toCopy) {
-            triNum = toCopy.triNum;
-            normal = new float[VCTR_NUM_CMPS];
-            QMath.copy3(normal, toCopy.normal);
+    }
+
+    private static class ClipContext {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        // NOTE:
+        // - everything a triangle needs on it's way from assembly to setup,
+        //   reused for every triangle so that clipping never allocates.
+        //   setup copies everything it keeps, so a submitted triangle's
+        //   verticies can be overwritten as soon as it returns
+        // - sourceTri is assembled from the vertex cache, and shares it's
+        //   shader outputs. every other vertex owns it's outputs
+        // - near clipping makes at most 2 triangles, each of which may then
+        //   gain 2 verticies per guard plane. guard verticies are released
+        //   after each near triangle, and fan triangles are submitted one
+        //   at a time through fanTri
+        public Triangle   sourceTri  = new Triangle(0);
+        public Triangle[] nearPool   = new Triangle[] { new Triangle(0), new Triangle(0) };
+        public Triangle[] nearTris   = new Triangle[nearPool.length];
+        public int        nearCount  = 0;
+        public Vertex[]   guardVerts = new Vertex[SIDE_PLANES * 2];
+        public int        guardCount = 0;
+        public Vertex[]   polyA      = new Vertex[CLIP_MAX_POLY_VERTS];
+        public Vertex[]   polyB      = new Vertex[CLIP_MAX_POLY_VERTS];
+        public Triangle   fanTri     = new Triangle(0);
+        public int[]      behind     = new int[VERTS_PER_TRI];
+        public float[]    scratchA   = QMath.new3( );
+        public float[]    scratchB   = QMath.new3( );
+        public float[]    scratchC   = QMath.new3( );
 
-            verts = new Vertex[VERTS_PER_TRI];
-            for (int i = 0; i < verts.length; i++) {
-                verts[i] = new Vertex(toCopy.verts[i]);
-            }
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC METHODS
+        public Triangle nextNearTri(Triangle src) {
+            Triangle tri = nearPool[nearCount];
+            nearTris[nearCount++] = tri;
+            tri.triNum   = src.triNum;
+            QMath.copy3(tri.normal, src.normal);
+            return tri;
+        }
+
+        public Vertex nextGuardVert( ) {
+            return guardVerts[guardCount++];
         }
 
+        /////////////////////////////////////////////////////////////////
+        // CONSTRUCTORS
+        public ClipContext( ) {
+            for (int i = 0; i < guardVerts.length; i++) {
+                guardVerts[i] = new Vertex( );
+            }
+        }
     }
 
-    private static class ClipState {
+    private static class SetupTri {
         /////////////////////////////////////////////////////////////////
         // PUBLIC MEMBERS
-        public int       numVertsBehind     = 0;
-        public boolean[] vertBehindState    = new boolean[VERTS_PER_TRI];
-        public int[]     vertBehindIndicies = new int[VERTS_PER_TRI];
+        // NOTE:
+        // - a screenspace triangle ready for rasterization, along with the
+        //   inclusive screen bounds of every pixel it may touch
+        // - edge n is the edge opposite of vertex n. every edge is kept in
+        //   SUBPIXEL_BITS fixed point, with sample point p = (x, y) in subpixels
+        //   E(p) = edgeA * (x - edgeX) + edgeB * (y - edgeY) + edgeBias, oriented
+        //   such that E >= 0 on the inside. as E is exact, edgeBias of -1
+        //   excludes samples exactly on edges which are not top or left edges
+        // - E(p) * invArea is the barycentric weight of vertex n at p, while
+        //   edgeStepX/edgeStepY are the change in E from one pixel to the next
+        // - plane n is stored as
+        //   P(x, y) = planeOrigin + planeDX * (x - planeX) + planeDY * (y - planeY)
+        //   where plane 0 is invZ and the rest are each vertex shader output
+        //   component multiplied by invZ. slotOffsets maps each output slot
+        //   to it's first plane, or -1 if the slot is unused, and slotSizes
+        //   holds it's component count
+        // - nothing here refers back to the source triangle, which is reused
+        //   as soon as it has been set up
+        // - setup triangles are reused too. serial draws set up every
+        //   triangle into their RasterContext's, and binned draws take them
+        //   from setupPool, so arrays are only allocated when the output
+        //   format grows
+        // - prepassID is only set for depth prepassed draws, see
+        //   internalAssignPrepassIDs
+        public float[]  normal    = new float[VCTR_NUM_CMPS];
+        public int[]    edgeA     = new int[EDGES_PER_TRI];
+        public int[]    edgeB     = new int[EDGES_PER_TRI];
+        public int[]    edgeX     = new int[EDGES_PER_TRI];
+        public int[]    edgeY     = new int[EDGES_PER_TRI];
+        public int[]    edgeBias  = new int[EDGES_PER_TRI];
+        public int[]    edgeStepX = new int[EDGES_PER_TRI];
+        public int[]    edgeStepY = new int[EDGES_PER_TRI];
+        public float    invArea   = 0.0f;
+        public int      minX      = Integer.MAX_VALUE;
+        public int      maxX      = Integer.MIN_VALUE;
+        public int      minY      = Integer.MAX_VALUE;
+        public int      maxY      = Integer.MIN_VALUE;
+        public int      planeCount;
+        public int[]    slotOffsets;
+        public int[]    slotSizes;
+        public float    planeX;
+        public float    planeY;
+        public float[]  planeOrigin;
+        public float[]  planeDX;
+        public float[]  planeDY;
+        public float    minDepth;
+        public int      prepassID;
 
         /////////////////////////////////////////////////////////////////
         // PUBLIC METHODS
-        public String toString( ) {
-            return String.format(
-                "<numVBehind: %d, vStates: %s vIndicies: %s>",
-                numVertsBehind,
-                Arrays.toString(vertBehindState),
-                Arrays.toString(vertBehindIndicies)
-            );
+        public boolean isEmpty( ) {
+            return (minX > maxX) || (minY > maxY);
         }
-    }
 
-    /////////////////////////////////////////////////////////////////
-    // PRIVATE METHODS
-    private void init(QRenderBuffer target) {
-        renderTarget = target;
-    }
+        public void reset( ) {
+            invArea = 0.0f;
+            minX    = Integer.MAX_VALUE;
+            maxX    = Integer.MIN_VALUE;
+            minY    = Integer.MAX_VALUE;
+            maxY    = Integer.MIN_VALUE;
+        }
 
-    private void internalEnsureShaderRequirements(QShader shader) {
-        QShader.ShaderRequirement[] requirements = shader.requirements( );
-        for (ShaderRequirement require : requirements) {
-            switch (require.requireType) {
-                case Attribute:
-                    if (slotAttribs[require.slot] == null) {
-                        throw new QException(
-                            PointOfError.InvalidData, 
-                            "Shader requires attibute slot " + require.slot +
-                            ". Purpose: " + require.purpose
-                        );
-                    }
-                    break;
+        public void prepare(int slotCount, int _planeCount) {
+            // NOTE:
+            //  slotSizes.length is the output slot count, so slot arrays are
+            //  sized exactly. plane arrays only ever grow
+            if (slotOffsets == null || slotOffsets.length != slotCount) {
+                slotOffsets = new int[slotCount];
+                slotSizes   = new int[slotCount];
+            }
+            if (planeOrigin == null || planeOrigin.length < _planeCount) {
+                planeOrigin = new float[_planeCount];
+                planeDX     = new float[_planeCount];
+                planeDY     = new float[_planeCount];
+            }
+            planeCount = _planeCount;
+        }
 
-                case Uniform:
-                    if (slotUniforms[require.slot] == null) {
-                        String typeSpecification = "";
-                        if (require.uniformClass != null) {
-                            typeSpecification = " of type " + require.uniformClass;
-                        }
-                        throw new QException(
-                            PointOfError.InvalidData, 
-                            "Shader requires uniform slot " + 
-                            require.slot +
-                            typeSpecification + 
-                            ". Purpose: " + require.purpose
-                        );
-                    }
-                    if (slotUniforms[require.slot].getClass( ) != require.uniformClass) {
-                        throw new QException(
-                            PointOfError.InvalidData, 
-                            "Shader requires uniform slot " + require.slot +
-                            " to be of type: " + 
-                            require.uniformClass + 
-                            ". Given was " +
-                            slotUniforms[require.slot].getClass( )
-                        );
-                    }
-                    break;
+        public long evalEdge(int edge, int x, int y) {
+            return 
+                (long)edgeA[edge] * (x - edgeX[edge]) + 
+                (long)edgeB[edge] * (y - edgeY[edge]) + 
+                edgeBias[edge];
+        }
 
-                case Texture:
-                    if (slotTextures[require.slot] == null) {
-                        throw new QException(
-                            PointOfError.InvalidData, 
-                            "Shader requires texture slot " + require.slot +
-                            ". Purpose: " + require.purpose
-                        );
-                    }
-                    break;
-            
-                default:
-                    throw new QException(
-                        PointOfError.InvalidData, 
-                        "Unknow requirement type: " + require.requireType.toString( )
-                    );
+        public float evalPlane(int plane, float x, float y) {
+            return planeOrigin[plane] + planeDX[plane] * (x - planeX) + planeDY[plane] * (y - planeY);
+        }
+
+        public int classifyBlock(
+            int   blockX, 
+            int   blockY, 
+            int[] blockEdgesOut, 
+            int[] blockStepXOut, 
+            int[] blockStepYOut
+        ) {
+            // NOTE:
+            // - as edge functions are linear, a block is entirely outside an
+            //   edge if all 4 of its corners are, and entirely inside if all 4 are
+            // - E at the block's origin sample and it's per pixel steps are
+            //   written out for each edge. edges which cover the whole block
+            //   are written as 0 with no step, so every value left is bounded
+            //   by the block's extent and the raster can step them as ints
+            int sampleX  = (blockX << SUBPIXEL_BITS) + SUBPIXEL_HALF;
+            int sampleY  = (blockY << SUBPIXEL_BITS) + SUBPIXEL_HALF;
+            int coverage = BLOCK_INSIDE;
+            for (int edge = 0; edge < EDGES_PER_TRI; edge++) {
+                long eOrigin = evalEdge(edge, sampleX, sampleY);
+                long spanX   = (long)edgeStepX[edge] * RASTER_BLOCK_SPAN;
+                long spanY   = (long)edgeStepY[edge] * RASTER_BLOCK_SPAN;
+                long cornerMin = eOrigin + Math.min(0L, spanX) + Math.min(0L, spanY);
+                long cornerMax = eOrigin + Math.max(0L, spanX) + Math.max(0L, spanY);
+                if (cornerMax < 0L) { return BLOCK_OUTSIDE; }
+                if (cornerMin >= 0L) {
+                    blockEdgesOut[edge] = 0;
+                    blockStepXOut[edge] = 0;
+                    blockStepYOut[edge] = 0;
+                    continue;
+                }
+                coverage = BLOCK_PARTIAL;
+                blockEdgesOut[edge] = (int)eOrigin;
+                blockStepXOut[edge] = edgeStepX[edge];
+                blockStepYOut[edge] = edgeStepY[edge];
             }
+            return coverage;
         }
     }
 
-    private QShader internalGetRelevantShader( ) {
-        switch (renderMode) {
-            case SolidFill:
-                return SOLIDFILL_SHADER;
-
-            case Textured:
-                return TEXTURED_SHADER;
+    private static class RasterContext {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        // NOTE:
+        // - per thread scratch for the raster and fragment stages. it is
+        //   reused for every triangle rasterized on it's thread so that
+        //   shading a fragment never allocates
+        public QShader.FragmentShaderContext fctx = 
+            new QShader.FragmentShaderContext( );
+        public SetupTri    setup       = new SetupTri( );
+        public float[]     rowPlanes   = new float[0];
+        public float[]     abovePlanes = new float[0];
+        public float[]     quadPlanes  = new float[0];
+        public float[][][] quadInputs  = new float[QUAD_PIXELS][0][];
+        public float[][]   inputDdx    = new float[0][];
+        public float[][]   inputDdy    = new float[0][];
+        public float[]     lanePlanes  = new float[0];
+        public float[]     laneDepths  = new float[QUAD_SIZE * RASTER_BLOCK_SIZE];
+        public int[]       blockEdges  = new int[EDGES_PER_TRI];
+        public int[]       blockStepX  = new int[EDGES_PER_TRI];
+        public int[]       blockStepY  = new int[EDGES_PER_TRI];
+        public int[]       laneColors  = new int[RASTER_BLOCK_SIZE];
+        public int[]       rowMasks    = new int[QUAD_SIZE];
 
-            case Normal:
-                return NORMAL_SHADER;
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC METHODS
+        public void prepare(SetupTri setup) {
+            if (rowPlanes.length < setup.planeCount) {
+                rowPlanes   = new float[setup.planeCount];
+                abovePlanes = new float[setup.planeCount];
+                quadPlanes  = new float[setup.planeCount * QUAD_PIXELS];
+                lanePlanes  = new float[setup.planeCount * QUAD_SIZE * RASTER_BLOCK_SIZE];
+            }
 
-            case Material:
-                return MATERIAL_SHADER;
+            // NOTE:
+            //  fragment inputs are only written to, never resized, so the
+            //  buffers only change when the triangle's output format does
+            for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+                quadInputs[quadPixel] = internalPrepareInputs(quadInputs[quadPixel], setup);
+            }
+            inputDdx = internalPrepareInputs(inputDdx, setup);
+            inputDdy = internalPrepareInputs(inputDdy, setup);
 
-            case CustomShader:
-                return customShader;
+            fctx.inputsFromVertexShader = quadInputs[0];
+            fctx.inputDdx               = inputDdx;
+            fctx.inputDdy               = inputDdy;
+        }
 
-            default:
-                throw new QException(
-                    PointOfError.BadState, 
-                    "Unknown renderMode: " + renderMode.toString( )
-                );
+        /////////////////////////////////////////////////////////////////
+        // PRIVATE METHODS
+        private static float[][] internalPrepareInputs(float[][] inputs, SetupTri setup) {
+            int[] slotSizes = setup.slotSizes;
+            if (inputs.length != slotSizes.length) {
+                inputs = new float[slotSizes.length][];
+            }
+            for (int slot = 0; slot < slotSizes.length; slot++) {
+                if (setup.slotOffsets[slot] < 0) {
+                    inputs[slot] = null;
+                    continue;
+                }
+                if (inputs[slot] == null || inputs[slot].length != slotSizes[slot]) {
+                    inputs[slot] = new float[slotSizes[slot]];
+                }
+            }
+            return inputs;
         }
     }
 
-    private void internalDraw( ) {
-        if (renderTarget == null) {
-            throw new QException(
-                PointOfError.BadState, 
-                "Render target unassigned"
-            );
+    private static class TileBin {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        public int[] setupIndicies = new int[BIN_INITIAL_CAPACITY];
+        public int   count         = 0;
+
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC METHODS
+        public void add(int setupIndex) {
+            if (count >= setupIndicies.length) {
+                int[] newIndicies = new int[setupIndicies.length * 2];
+                System.arraycopy(setupIndicies, 0, newIndicies, 0, count);
+                setupIndicies = newIndicies;
+            }
+            setupIndicies[count++] = setupIndex;
+        }
+
+        public void clear( ) {
+            count = 0;
+        }
+    }
+
+    private static class VertexCache {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        public int         keyLength      = 0;
+        public int[]       activeSlots    = new int[0];
+        public int[]       key            = new int[0];
+        public int[]       table          = new int[0];
+        public int[]       vertEntries    = new int[0];
+        public int[]       entryKeys      = new int[0];
+        public int[]       entryVertIndex = new int[0];
+        public float[]     entryPosns     = new float[0];
+        public float[][][] entryOutputs   = new float[0][][];
+        public float[][][] entryPool      = new float[0][][];
+        public int         entryCount     = 0;
+
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC METHODS
+        public void reset(QAttribIndexer[] attribs, int maxEntries, boolean useTable) {
+            // NOTE:
+            // - the key of a vertex is the tuple of it's indicies into each
+            //   used attribute slot, as mesh attributes are indexed seperately
+            keyLength = 0;
+            for (int slot = 0; slot < attribs.length; slot++) {
+                if (attribs[slot] != null) { keyLength++; }
+            }
+            if (activeSlots.length != keyLength) {
+                activeSlots = new int[keyLength];
+                key         = new int[keyLength];
+            }
+            int keyIndex = 0;
+            for (int slot = 0; slot < attribs.length; slot++) {
+                if (attribs[slot] != null) { activeSlots[keyIndex++] = slot; }
+            }
+
+            if (entryOutputs.length < maxEntries) {
+                vertEntries    = new int[maxEntries];
+                entryKeys      = new int[maxEntries * keyLength];
+                entryVertIndex = new int[maxEntries];
+                entryPosns     = new float[maxEntries * VCTR_NUM_CMPS];
+                entryOutputs   = new float[maxEntries][][];
+                entryPool      = Arrays.copyOf(entryPool, maxEntries);
+            } else if (entryKeys.length < maxEntries * keyLength) {
+                entryKeys      = new int[maxEntries * keyLength];
+            }
+            Arrays.fill(entryOutputs, 0, entryCount, null);
+            entryCount = 0;
+
+            if (!useTable) { return; }
+
+            // table is kept at most half full so probe chains stay short
+            int tableSize = Integer.highestOneBit(Math.max(1, maxEntries)) << 2;
+            if (table.length < tableSize) {
+                table = new int[tableSize];
+            }
+            Arrays.fill(table, VERTEX_CACHE_EMPTY);
+        }
+
+        public void loadKey(QAttribIndexer[] attribs, int vertIndex) {
+            for (int i = 0; i < keyLength; i++) {
+                key[i] = attribs[activeSlots[i]].getIndicie(vertIndex);
+            }
+        }
+
+        public int find( ) {
+            int mask = table.length - 1;
+            for (int probe = hashKey( ) & mask; ; probe = (probe + 1) & mask) {
+                int entry = table[probe];
+                if (entry == VERTEX_CACHE_EMPTY) { return VERTEX_CACHE_EMPTY; }
+                if (keyMatches(entry)) { return entry; }
+            }
+        }
+
+        public int insert(int vertIndex) {
+            int mask  = table.length - 1;
+            int probe = hashKey( ) & mask;
+            while (table[probe] != VERTEX_CACHE_EMPTY) {
+                probe = (probe + 1) & mask;
+            }
+
+            int entry = add(vertIndex);
+            table[probe] = entry;
+            System.arraycopy(key, 0, entryKeys, entry * keyLength, keyLength);
+            return entry;
+        }
+
+        public int add(int vertIndex) {
+            int entry = entryCount++;
+            entryVertIndex[entry] = vertIndex;
+            return entry;
+        }
+
+        /////////////////////////////////////////////////////////////////
+        // PRIVATE METHODS
+        private int hashKey( ) {
+            int hash = 0;
+            for (int i = 0; i < keyLength; i++) {
+                hash = (hash + key[i]) * VERTEX_CACHE_HASH_PRIME;
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private boolean keyMatches(int entry) {
+            int base = entry * keyLength;
+            for (int i = 0; i < keyLength; i++) {
+                if (entryKeys[base + i] != key[i]) { return false; }
+            }
+            return true;
+        }
+    }
+
+    private static class DeferredMaterial {
+        /////////////////////////////////////////////////////////////////
+        // PUBLIC MEMBERS
+        public QMaterial    material;
+        public QLight[]     lights;
+        public QSampleable  texture;
+        public SampleType   sampleType;
+        public SampleFilter sampleFilter;
+
+        /////////////////////////////////////////////////////////////////
+        // CONSTRUCTORS
+        public DeferredMaterial(
+            QMaterial    _material,
+            QLight[]     _lights,
+            QSampleable  _texture,
+            SampleType   _sampleType,
+            SampleFilter _sampleFilter
+        ) {
+            material     = _material;
+            lights       = _lights;
+            texture      = _texture;
+            sampleType   = _sampleType;
+            sampleFilter = _sampleFilter;
+        }
+    }
+
+    private final class DeferredLightTask extends RecursiveAction {
+        /////////////////////////////////////////////////////////////////
+        // CONSTANTS
+        private static final long serialVersionUID    = 1L;
+        private static final int  MIN_PIXELS_PER_TASK = 4096;
+
+        /////////////////////////////////////////////////////////////////
+        // PRIVATE MEMBERS
+        private final QGBuffer gBuffer;
+        private final int      pixelStart;
+        private final int      pixelEnd;
+
+        /////////////////////////////////////////////////////////////////
+        // PROTECTED METHODS
+        protected void compute( ) {
+            if (pixelEnd - pixelStart <= MIN_PIXELS_PER_TASK) {
+                internalShadeDeferredRange(gBuffer, pixelStart, pixelEnd);
+                return;
+            }
+
+            int pixelMid = (pixelStart + pixelEnd) >>> 1;
+            invokeAll(
+                new DeferredLightTask(gBuffer, pixelStart, pixelMid),
+                new DeferredLightTask(gBuffer, pixelMid, pixelEnd)
+            );
+        }
+
+        /////////////////////////////////////////////////////////////////
+        // CONSTRUCTORS
+        public DeferredLightTask(QGBuffer _gBuffer, int _pixelStart, int _pixelEnd) {
+            gBuffer    = _gBuffer;
+            pixelStart = _pixelStart;
+            pixelEnd   = _pixelEnd;
+        }
+    }
+
+    private final class TileRasterTask extends RecursiveAction {
+        /////////////////////////////////////////////////////////////////
+        // CONSTANTS
+        private static final long serialVersionUID = 1L;
+
+        /////////////////////////////////////////////////////////////////
+        // PRIVATE MEMBERS
+        private final int tileStart;
+        private final int tileEnd;
+        private final int pass;
+
+        /////////////////////////////////////////////////////////////////
+        // PROTECTED METHODS
+        protected void compute( ) {
+            if (tileEnd - tileStart <= 1) {
+                internalRasterizeTile(tileStart, pass);
+                return;
+            }
+
+            int tileMid = (tileStart + tileEnd) >>> 1;
+            invokeAll(
+                new TileRasterTask(tileStart, tileMid, pass),
+                new TileRasterTask(tileMid, tileEnd, pass)
+            );
+        }
+
+        /////////////////////////////////////////////////////////////////
+        // CONSTRUCTORS
+        public TileRasterTask(int _tileStart, int _tileEnd, int _pass) {
+            tileStart = _tileStart;
+            tileEnd   = _tileEnd;
+            pass      = _pass;
+        }
+    }
+
+    /////////////////////////////////////////////////////////////////
+    // PRIVATE METHODS
+    private void init(QRenderBuffer target) {
+        renderTarget = target;
+    }
+
+    private void internalEnsureShaderRequirements(QShader shader) {
+        QShader.ShaderRequirement[] requirements = shader.requirements( );
+        for (ShaderRequirement require : requirements) {
+            switch (require.requireType) {
+                case Attribute:
+                    if (slotAttribs[require.slot] == null) {
+                        throw new QException(
+                            PointOfError.InvalidData, 
+                            "Shader requires attibute slot " + require.slot +
+                            ". Purpose: " + require.purpose
+                        );
+                    }
+                    break;
+
+                case Uniform:
+                    if (drawUniforms[require.slot] == null) {
+                        String typeSpecification = "";
+                        if (require.uniformClass != null) {
+                            typeSpecification = " of type " + require.uniformClass;
+                        }
+                        throw new QException(
+                            PointOfError.InvalidData, 
+                            "Shader requires uniform slot " + 
+                            require.slot +
+                            typeSpecification + 
+                            ". Purpose: " + require.purpose
+                        );
+                    }
+                    if (drawUniforms[require.slot].getClass( ) != require.uniformClass) {
+                        throw new QException(
+                            PointOfError.InvalidData, 
+                            "Shader requires uniform slot " + require.slot +
+                            " to be of type: " + 
+                            require.uniformClass + 
+                            ". Given was " +
+                            drawUniforms[require.slot].getClass( )
+                        );
+                    }
+                    break;
+
+                case Texture:
+                    if (slotTextures[require.slot] == null) {
+                        throw new QException(
+                            PointOfError.InvalidData, 
+                            "Shader requires texture slot " + require.slot +
+                            ". Purpose: " + require.purpose
+                        );
+                    }
+                    break;
+            
+                default:
+                    throw new QException(
+                        PointOfError.InvalidData, 
+                        "Unknow requirement type: " + require.requireType.toString( )
+                    );
+            }
+        }
+    }
+
+    private static int internalShadeMaterial(
+        QMaterial mat,
+        QLight[]  lights,
+        int       texSampleColor,
+        float[]   posData,
+        int       posOfst,
+        float[]   normalData,
+        int       normalOfst
+    ) {
+        // NOTE:
+        // - blinn-phong, where the viewer is at the origin of viewspace. the
+        //   viewspace position and normalized normal are read from posData
+        //   and normalData
+        // - shared by MATERIAL_SHADER and the deferred lighting pass, so both
+        //   produce the same color
+        float invPosMag = 1.0f / QMath.mag3(posOfst, posData);
+        float viewX     = -posData[posOfst + VCTR_INDEX_X] * invPosMag;
+        float viewY     = -posData[posOfst + VCTR_INDEX_Y] * invPosMag;
+        float viewZ     = -posData[posOfst + VCTR_INDEX_Z] * invPosMag;
+
+        float diffuseAccum  = 0.0f;
+        float specularAccum = 0.0f;
+        for (QLight light : lights) {
+            float[] lightPos = light.position.getComponents( );
+            float dirX = lightPos[VCTR_INDEX_X] - posData[posOfst + VCTR_INDEX_X];
+            float dirY = lightPos[VCTR_INDEX_Y] - posData[posOfst + VCTR_INDEX_Y];
+            float dirZ = lightPos[VCTR_INDEX_Z] - posData[posOfst + VCTR_INDEX_Z];
+
+            float distToLight = (float)Math.sqrt(dirX * dirX + dirY * dirY + dirZ * dirZ);
+            float invDist     = 1.0f / distToLight;
+            dirX *= invDist;
+            dirY *= invDist;
+            dirZ *= invDist;
+
+            float falloff = light.strength * invDist;
+            float diffuse = 
+                normalData[normalOfst + VCTR_INDEX_X] * dirX +
+                normalData[normalOfst + VCTR_INDEX_Y] * dirY +
+                normalData[normalOfst + VCTR_INDEX_Z] * dirZ;
+            if (diffuse <= 0.0f) { continue; }
+            diffuseAccum += diffuse * falloff;
+
+            float halfX   = dirX + viewX;
+            float halfY   = dirY + viewY;
+            float halfZ   = dirZ + viewZ;
+            float invHalf = 1.0f / (float)Math.sqrt(halfX * halfX + halfY * halfY + halfZ * halfZ);
+            float specular = Math.max(0.0f, (
+                normalData[normalOfst + VCTR_INDEX_X] * halfX +
+                normalData[normalOfst + VCTR_INDEX_Y] * halfY +
+                normalData[normalOfst + VCTR_INDEX_Z] * halfZ) * invHalf
+            );
+            specularAccum += (float)Math.pow(specular, mat.shininess) * falloff;
+        }
+
+        int r = internalShadeMaterialChannel(
+            (texSampleColor >>> COL_LSHIFT_OFST_R) & COL_CHNL_BMASK,
+            mat.ambient.getR( ), mat.diffuse.getR( ), mat.specular.getR( ),
+            diffuseAccum, specularAccum
+        );
+        int g = internalShadeMaterialChannel(
+            (texSampleColor >>> COL_LSHIFT_OFST_G) & COL_CHNL_BMASK,
+            mat.ambient.getG( ), mat.diffuse.getG( ), mat.specular.getG( ),
+            diffuseAccum, specularAccum
+        );
+        int b = internalShadeMaterialChannel(
+            (texSampleColor >>> COL_LSHIFT_OFST_B) & COL_CHNL_BMASK,
+            mat.ambient.getB( ), mat.diffuse.getB( ), mat.specular.getB( ),
+            diffuseAccum, specularAccum
+        );
+        return COL_BMASK_A | 
+            (r << COL_LSHIFT_OFST_R) | 
+            (g << COL_LSHIFT_OFST_G) | 
+            (b << COL_LSHIFT_OFST_B);
+    }
+
+    private static int internalShadeMaterialChannel(
+        int   texChannel,
+        int   ambient,
+        int   diffuse,
+        int   specular,
+        float diffuseAccum,
+        float specularAccum
+    ) {
+        // NOTE:
+        //  all channels are in 0-255, so the lit surface color is
+        //  tex * (ambient + diffuse * diffuseAccum) / 255 + specular * specularAccum
+        final float INV_255 = 1.0f / 255.0f;
+        float lit = 
+            texChannel * (ambient + diffuse * diffuseAccum) * INV_255 +
+            specular * specularAccum;
+        return Math.min(0xFF, (int)lit);
+    }
+
+    private QShader internalGetRelevantShader( ) {
+        switch (renderMode) {
+            case SolidFill:
+                return SOLIDFILL_SHADER;
+
+            case Textured:
+                return TEXTURED_SHADER;
+
+            case Normal:
+                return NORMAL_SHADER;
+
+            case Material:
+                return MATERIAL_SHADER;
+
+            case CustomShader:
+                return customShader;
+
+            default:
+                throw new QException(
+                    PointOfError.BadState, 
+                    "Unknown renderMode: " + renderMode.toString( )
+                );
+        }
+    }
+
+    private void internalDraw( ) {
+        if (renderTarget == null) {
+            throw new QException(
+                PointOfError.BadState, 
+                "Render target unassigned"
+            );
         }
 
         // ENSURE ALL INDEXERS HAVE THE SAME TRI COUNT
@@ -692,74 +1607,528 @@ public final class QViewer extends QEncoding {
             );
         }
 
+        // NOTE:
+        // - tiled lights stand in for an unassigned lights uniform. the slots
+        //   are copied for that rather than written, so the stand in only
+        //   lasts for this draw and the lights slot stays unassigned
+        // - everything which reads uniforms during the draw must read them
+        //   from drawUniforms
+        internalEnsureLightTiles( );
+        drawUniforms = slotUniforms;
+        if (tiledLights != null && slotUniforms[DEFAULT_SHADER_LIGHTS_SLOT] == null) {
+            System.arraycopy(slotUniforms, 0, tiledUniforms, 0, SHADER_UNIFORM_SLOTS);
+            tiledUniforms[DEFAULT_SHADER_LIGHTS_SLOT] = tiledLights;
+            drawUniforms = tiledUniforms;
+        }
+
+        // RESOLVE AND VALIDATE SHADER
+        // NOTE:
+        //  slots can't change during a draw, so the shader is resolved and
+        //  checked against it's requirements once here rather than per vertex
+        drawShader = internalGetRelevantShader( );
+        if (drawShader == null) {
+            throw new QException(
+                PointOfError.BadState, 
+                "Custom shader unassigned"
+            );
+        }
+        internalEnsureShaderRequirements(drawShader);
+
+        // NOTE:
+        //  the default texture is bound to a sampler once per draw, so the
+        //  default shaders never sample it through QSampleable
+        drawSampler = internalBindSampler(slotTextures[DEFAULT_SHADER_TEXTURE_SLOT]);
+
+        // CULL AGAINST VIEW FRUSTUM
+        int frustumState = internalClassifyMeshBounds( );
+        if (frustumState == FRUSTUM_OUTSIDE) { return; }
+        internalFindSideBounds( );
+
+        // NOTE:
+        //  deferred draws remember the uniforms they were drawn with, as
+        //  they are only lit once shadeDeferred is called
+        deferredDraw = deferredShading && (drawShader == MATERIAL_SHADER);
+        drawGBuffer  = renderTarget.getGBuffer( );
+        if (deferredDraw) {
+            drawGBuffer    = renderTarget.attachGBuffer( );
+            drawMaterialID = deferredMaterials.size( );
+            drawMaterial   = new DeferredMaterial(
+                (QMaterial)drawUniforms[DEFAULT_SHADER_MATERIAL_SLOT], 
+                (QLight[])drawUniforms[DEFAULT_SHADER_LIGHTS_SLOT], 
+                slotTextures[DEFAULT_SHADER_TEXTURE_SLOT], 
+                sampleType,
+                sampleFilter
+            );
+            deferredMaterials.add(drawMaterial);
+        }
+
+        // CULL CLUSTERS AND BACKFACES IN OBJECT SPACE
+        boolean preCulled = internalPreCull(triCount, frustumState);
+
+        // SHADE ALL UNIQUE VERTICIES
+        internalGatherVerticies(triCount, preCulled);
+        if (drawShader.hasBatchedVertexShader( )) {
+            internalShadeVerticiesBatched( );
+        } else {
+            internalShadeVerticies( );
+        }
+
+        ClipContext clip = clipContexts.get( );
         for (int triNum = 0; triNum < triCount; triNum++) {
+            if (preCulled && triCulled[triNum]) { continue; }
+
             // GENERATE TRIANGLE
-            Triangle tri = new Triangle(triNum);
-            internalProcessVertex(tri, 0);
-            internalProcessVertex(tri, 1);
-            internalProcessVertex(tri, 2);
+            Triangle tri = clip.sourceTri;
+            tri.triNum   = triNum;
+            internalAssembleVertex(tri, 0);
+            internalAssembleVertex(tri, 1);
+            internalAssembleVertex(tri, 2);
 
             // GENERATE TRIANGLE NORMAL
-            float[] d01 = new float[VCTR_NUM_CMPS];
+            float[] d01 = clip.scratchA;
             QMath.copy3(d01, tri.getPosn(1));
             QMath.sub3(d01, tri.getPosn(0));
 
-            float[] d02 = new float[VCTR_NUM_CMPS];
+            float[] d02 = clip.scratchB;
             QMath.copy3(d02, tri.getPosn(2));
             QMath.sub3(d02, tri.getPosn(0));
 
-            float[] tempNormal = QMath.cross3(d01, d02);
-            QMath.mult3(tempNormal, 1.0f / QMath.mag3(tempNormal));
-            QMath.copy3(tri.normal, tempNormal);
+            QMath.cross3(tri.normal, d01, d02);
+            QMath.mult3(tri.normal, 1.0f / QMath.mag3(tri.normal));
 
             // CULL IF BACKFACING
-            if (internalCheckBackfacing(tri)) { continue; }
+            if (internalCheckBackfacing(tri, clip.scratchA)) { continue; }
 
             // CLIP AND RENDER 
-            Triangle[] clipTris = internalClipTri(tri);
-            for (Triangle clippedTri : clipTris) {
-                internalDrawTri(clippedTri);
+            if (frustumState == FRUSTUM_INSIDE) {
+                internalSubmitTri(tri);
+                continue;
+            }
+            internalClipTri(tri, clip);
+            for (int nearTri = 0; nearTri < clip.nearCount; nearTri++) {
+                internalClipGuardBand(clip.nearTris[nearTri], clip);
+            }
+        }
+
+        if (binnedRendering) {
+            internalRasterizeBins( );
+        } else if (depthPrepass) {
+            internalRasterizePrepassed( );
+        }
+
+    }
+
+    private static float[][] internalTransformBatchPositions(VertexBatchContext context) {
+        QMatrix4x4 mtr      = (QMatrix4x4)context.uniforms[DEFAULT_SHADER_MATRIX_SLOT];
+        float[][]  posnsIn  = context.attributes[DEFAULT_SHADER_POSITION_SLOT];
+        float[][]  posnsOut = context.positionsOut;
+        QMath.mul3_4x4Batch(
+            mtr.getComponents( ), 
+            posnsIn[VCTR_INDEX_X], 
+            posnsIn[VCTR_INDEX_Y], 
+            posnsIn[VCTR_INDEX_Z], 
+            posnsOut[VCTR_INDEX_X], 
+            posnsOut[VCTR_INDEX_Y], 
+            posnsOut[VCTR_INDEX_Z], 
+            context.count
+        );
+        return posnsOut;
+    }
+
+    private static void internalTransformBatchNormals(VertexBatchContext context) {
+        // NOTE:
+        //  rotation is extracted once for the whole batch rather than per vertex
+        QMatrix4x4 mtr        = (QMatrix4x4)context.uniforms[DEFAULT_SHADER_MATRIX_SLOT];
+        float[][]  normalsIn  = context.attributes[DEFAULT_SHADER_NORMAL_SLOT];
+        float[][]  normalsOut = QShader.getBatchOutputToFragShader(
+            context, 
+            DEFAULT_SHADER_NORMAL_SLOT, 
+            VCTR_NUM_CMPS
+        );
+        QMath.mul3_4x4Batch(
+            mtr.extractRotation( ).getComponents( ), 
+            normalsIn[VCTR_INDEX_X], 
+            normalsIn[VCTR_INDEX_Y], 
+            normalsIn[VCTR_INDEX_Z], 
+            normalsOut[VCTR_INDEX_X], 
+            normalsOut[VCTR_INDEX_Y], 
+            normalsOut[VCTR_INDEX_Z], 
+            context.count
+        );
+    }
+
+    private void internalSubmitTri(Triangle tri) {
+        if (binnedRendering || depthPrepass) {
+            internalBinTri(tri);
+        } else {
+            internalDrawTri(tri);
+        }
+    }
+
+    private boolean internalUsesMeshTransform( ) {
+        // NOTE:
+        //  mesh data can only be related to what's drawn when the mesh is
+        //  drawn by a built in shader, which is always a plain matrix transform
+        return currentMesh != null && renderMode != RenderMode.CustomShader;
+    }
+
+    private void internalBuildFrustumPlanes( ) {
+        // NOTE:
+        // - view space planes stored as <nx ny nz w>, where a point is inside
+        //   when dot(n, p) + w >= 0. normals are unit length so the result is
+        //   a true distance which can be compared to a radius
+        // - as the camera looks down -z, a point projects inside the view
+        //   bounds when left * -z <= x <= right * -z, and likewise for y
+        int base = 0;
+        base = internalSetFrustumPlane(base, 0.0f, 0.0f, -1.0f, nearClip);
+        base = internalSetFrustumPlane(base, 1.0f, 0.0f, viewLeft, 0.0f);
+        base = internalSetFrustumPlane(base, -1.0f, 0.0f, -viewRight, 0.0f);
+        base = internalSetFrustumPlane(base, 0.0f, 1.0f, viewBottom, 0.0f);
+        base = internalSetFrustumPlane(base, 0.0f, -1.0f, -viewTop, 0.0f);
+    }
+
+    private int internalSetFrustumPlane(int base, float nx, float ny, float nz, float w) {
+        float invMag = 1.0f / (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+        frustumPlanes[base + 0] = nx * invMag;
+        frustumPlanes[base + 1] = ny * invMag;
+        frustumPlanes[base + 2] = nz * invMag;
+        frustumPlanes[base + 3] = w * invMag;
+        return base + FRUSTUM_PLANE_CMPS;
+    }
+
+    private float internalFrustumPlaneDist(int plane, float[] point) {
+        int base = plane * FRUSTUM_PLANE_CMPS;
+        return frustumPlanes[base + 0] * point[VCTR_INDEX_X] +
+               frustumPlanes[base + 1] * point[VCTR_INDEX_Y] +
+               frustumPlanes[base + 2] * point[VCTR_INDEX_Z] +
+               frustumPlanes[base + 3];
+    }
+
+    private float internalFindMaxScale(float[] m) {
+        // NOTE:
+        //  the longest basis vector of the matrix, so that transformed
+        //  spheres stay conservative under non-uniform scale
+        float maxSqrScale = 0.0f;
+        for (int col = 0; col < VCTR_NUM_CMPS; col++) {
+            float x = QMath.get4x4(m, col, 0);
+            float y = QMath.get4x4(m, col, 1);
+            float z = QMath.get4x4(m, col, 2);
+            maxSqrScale = Math.max(maxSqrScale, x * x + y * y + z * z);
+        }
+        return (float)Math.sqrt(maxSqrScale);
+    }
+
+    private int internalClassifySphere(float[] viewCenter, float radius) {
+        boolean straddles = false;
+        for (int plane = 0; plane < FRUSTUM_PLANES; plane++) {
+            float dist = internalFrustumPlaneDist(plane, viewCenter);
+            if (dist < -radius) { return FRUSTUM_OUTSIDE; }
+            if (dist < radius)  { straddles = true; }
+        }
+        return straddles ? FRUSTUM_INTERSECTS : FRUSTUM_INSIDE;
+    }
+
+    private int internalClassifyMeshBounds( ) {
+        // NOTE:
+        // - the bounding sphere is tested first as it's only one point to
+        //   transform. only when it straddles a plane are the AABB's corners
+        //   transformed for a tighter answer
+        if (!frustumCull || !internalUsesMeshTransform( )) { return FRUSTUM_INTERSECTS; }
+
+        float[] m = ((QMatrix4x4)slotUniforms[DEFAULT_SHADER_MATRIX_SLOT]).getComponents( );
+        internalBuildFrustumPlanes( );
+
+        float   radius = currentMesh.getBoundingRadius( ) * internalFindMaxScale(m);
+        float[] center = boundsCenter;
+        QMath.copy3(center, currentMesh.getBoundingCenter( ));
+        QMath.mul3_4x4(center, m);
+
+        if (!Float.isFinite(radius)) { return FRUSTUM_INTERSECTS; }
+        int sphereState = internalClassifySphere(center, radius);
+        if (sphereState != FRUSTUM_INTERSECTS) { return sphereState; }
+
+        // REFINE WITH AABB
+        float[] bMin = currentMesh.getBoundsMin( );
+        float[] bMax = currentMesh.getBoundsMax( );
+        int[] outsideCounts = boundsOutside;
+        boolean anyOutside  = false;
+        Arrays.fill(outsideCounts, 0);
+        for (int corner = 0; corner < AABB_CORNERS; corner++) {
+            boundsCorner[VCTR_INDEX_X] = ((corner & 1) == 0) ? bMin[VCTR_INDEX_X] : bMax[VCTR_INDEX_X];
+            boundsCorner[VCTR_INDEX_Y] = ((corner & 2) == 0) ? bMin[VCTR_INDEX_Y] : bMax[VCTR_INDEX_Y];
+            boundsCorner[VCTR_INDEX_Z] = ((corner & 4) == 0) ? bMin[VCTR_INDEX_Z] : bMax[VCTR_INDEX_Z];
+            QMath.mul3_4x4(boundsCorner, m);
+
+            for (int plane = 0; plane < FRUSTUM_PLANES; plane++) {
+                if (internalFrustumPlaneDist(plane, boundsCorner) < 0.0f) {
+                    outsideCounts[plane]++;
+                    anyOutside = true;
+                }
+            }
+        }
+        for (int plane = 0; plane < FRUSTUM_PLANES; plane++) {
+            if (outsideCounts[plane] == AABB_CORNERS) { return FRUSTUM_OUTSIDE; }
+        }
+        return anyOutside ? FRUSTUM_INTERSECTS : FRUSTUM_INSIDE;
+    }
+
+    private float internalFindObjectSpaceEye(float[] m, float[] eyeOut) {
+        // NOTE:
+        // - the eye is moved into object space by inverting the affine part
+        //   of the matrix, via it's cofactors. returns the determinant, which
+        //   is 0 when the matrix can't be inverted and eyeOut is not valid
+        float m00 = QMath.get4x4(m, 0, 0), m10 = QMath.get4x4(m, 1, 0), m20 = QMath.get4x4(m, 2, 0);
+        float m01 = QMath.get4x4(m, 0, 1), m11 = QMath.get4x4(m, 1, 1), m21 = QMath.get4x4(m, 2, 1);
+        float m02 = QMath.get4x4(m, 0, 2), m12 = QMath.get4x4(m, 1, 2), m22 = QMath.get4x4(m, 2, 2);
+        float tx  = QMath.get4x4(m, 3, 0), ty  = QMath.get4x4(m, 3, 1), tz  = QMath.get4x4(m, 3, 2);
+
+        float c00 = m11 * m22 - m21 * m12;
+        float c01 = m21 * m02 - m01 * m22;
+        float c02 = m01 * m12 - m11 * m02;
+        float det = m00 * c00 + m10 * c01 + m20 * c02;
+        if (det == 0.0f || !Float.isFinite(det)) { return 0.0f; }
+
+        float c10 = m20 * m12 - m10 * m22;
+        float c11 = m00 * m22 - m20 * m02;
+        float c12 = m10 * m02 - m00 * m12;
+        float c20 = m10 * m21 - m20 * m11;
+        float c21 = m20 * m01 - m00 * m21;
+        float c22 = m00 * m11 - m10 * m01;
+
+        // eye = inverse(M) * (0 - t)
+        float invDet = -1.0f / det;
+        eyeOut[VCTR_INDEX_X] = (c00 * tx + c10 * ty + c20 * tz) * invDet;
+        eyeOut[VCTR_INDEX_Y] = (c01 * tx + c11 * ty + c21 * tz) * invDet;
+        eyeOut[VCTR_INDEX_Z] = (c02 * tx + c12 * ty + c22 * tz) * invDet;
+        return det;
+    }
+
+    private boolean internalPreCull(int triCount, int frustumState) {
+        // NOTE:
+        // - marks triangles in triCulled which can be skipped before any
+        //   vertex is shaded. whole clusters are culled first, against the
+        //   frustum and against their normal cone, then every remaining
+        //   face plane is tested against the eye in object space. for planar
+        //   triangles that's the same test internalCheckBackfacing does
+        //   after transforming, without having to transform anything
+        // - a mirroring matrix flips the winding of every transformed triangle,
+        //   and so flips which side of each plane is the back
+        // - returns false when nothing was culled and triCulled is not valid
+        if (!internalUsesMeshTransform( )) { return false; }
+        boolean cullClusters = clusterCull && currentMesh.hasClusters( );
+        if (!objectSpaceCull && !cullClusters) { return false; }
+
+        float[] facePlanes = currentMesh.getFacePlanes( );
+        if (facePlanes.length != triCount * QMesh.FACE_PLANE_CMPS) { return false; }
+
+        float[] m   = ((QMatrix4x4)slotUniforms[DEFAULT_SHADER_MATRIX_SLOT]).getComponents( );
+        float[] eye = objectEye;
+        float   det = internalFindObjectSpaceEye(m, eye);
+        if (det == 0.0f) { return false; }
+        float side = (det < 0.0f) ? -1.0f : 1.0f;
+
+        if (triCulled.length < triCount) {
+            triCulled = new boolean[triCount];
+        }
+        Arrays.fill(triCulled, 0, triCount, false);
+
+        if (cullClusters) {
+            internalCullClusters(m, eye, side, frustumState);
+        }
+        if (!objectSpaceCull) { return true; }
+
+        for (int triNum = 0; triNum < triCount; triNum++) {
+            if (triCulled[triNum]) { continue; }
+            int   base      = triNum * QMesh.FACE_PLANE_CMPS;
+            float eyeToFace = 
+                facePlanes[base + VCTR_NUM_CMPS] - 
+                QMath.dot3(base, facePlanes, 0, eye);
+            triCulled[triNum] = (eyeToFace * side > BACKFACE_CULL_MIN_DOT);
+        }
+        return true;
+    }
+
+    private void internalCullClusters(float[] m, float[] eye, float side, int frustumState) {
+        // NOTE:
+        // - a cluster is behind the eye when every point in it's sphere is
+        //   within 90 degrees of every normal in it's cone, which holds when
+        //   dot(center - eye, axis) - r > sin(coneAngle) * (|center - eye| + r)
+        // - cluster spheres only need testing against the frustum when the
+        //   mesh as a whole wasn't already known to be inside
+        int[]   offsets    = currentMesh.getClusterOffsets( );
+        int[]   tris       = currentMesh.getClusterTris( );
+        float[] bounds     = currentMesh.getClusterBounds( );
+        float   scale      = internalFindMaxScale(m);
+        float[] viewCenter = clusterCenter;
+        boolean testFrustum = frustumCull && (frustumState != FRUSTUM_INSIDE);
+        if (testFrustum) { internalBuildFrustumPlanes( ); }
+
+        for (int cluster = 0; cluster < currentMesh.getClusterCount( ); cluster++) {
+            int     base   = cluster * QMesh.CLUSTER_BOUNDS_CMPS;
+            float   radius = bounds[base + 3];
+            float   cutoff = bounds[base + 7];
+            boolean culled = false;
+
+            if (cutoff != QMesh.NO_CONE_CUTOFF) {
+                QMath.copy3(0, toCluster, base, bounds);
+                QMath.sub3(toCluster, eye);
+                float along = side * QMath.dot3(0, toCluster, base + 4, bounds) - radius;
+                culled = along > cutoff * (QMath.mag3(toCluster) + radius);
+            }
+
+            if (!culled && testFrustum) {
+                QMath.copy3(0, viewCenter, base, bounds);
+                QMath.mul3_4x4(viewCenter, m);
+                culled = internalClassifySphere(viewCenter, radius * scale) == FRUSTUM_OUTSIDE;
+            }
+
+            if (!culled) { continue; }
+            for (int i = offsets[cluster]; i < offsets[cluster + 1]; i++) {
+                triCulled[tris[i]] = true;
+            }
+        }
+    }
+
+    private void internalGatherVerticies(int triCount, boolean preCulled) {
+        int vertCount = triCount * VERTS_PER_TRI;
+        vertexCache.reset(slotAttribs, vertCount, vertexCaching);
+
+        for (int vertIndex = 0; vertIndex < vertCount; vertIndex++) {
+            if (preCulled && triCulled[vertIndex / VERTS_PER_TRI]) { continue; }
+
+            if (!vertexCaching) {
+                vertexCache.vertEntries[vertIndex] = vertexCache.add(vertIndex);
+                continue;
             }
+
+            vertexCache.loadKey(slotAttribs, vertIndex);
+            int entry = vertexCache.find( );
+            if (entry == VERTEX_CACHE_EMPTY) {
+                entry = vertexCache.insert(vertIndex);
+            }
+            vertexCache.vertEntries[vertIndex] = entry;
         }
+    }
+
+    private void internalShadeVerticies( ) {
+        for (int entry = 0; entry < vertexCache.entryCount; entry++) {
+            int vertIndex = vertexCache.entryVertIndex[entry];
+
+            QShader.VertexShaderContext vctx = new QShader.VertexShaderContext();
+            vctx.uniforms   = drawUniforms;
+            vctx.textures   = slotTextures;
+            vctx.attributes = new float[slotAttribs.length][];
+
+            // POPULATE VERTEX SHADER INPUTS
+            for (int slot = 0; slot < slotAttribs.length; slot++) {
+                // skip if slot is unused
+                QAttribIndexer indexer = slotAttribs[slot];
+                if (indexer == null) { continue; }
+
+                // populate attribute slot using indexer
+                vctx.attributes[slot] = new float[indexer.getComponentsPerAttrib( )];
+                indexer.index(
+                    vertIndex / VERTS_PER_TRI, 
+                    vertIndex % VERTS_PER_TRI, 
+                    0, 
+                    vctx.attributes[slot]
+                );
+            }
 
+            // CALL SHADER
+            QVector3 vertShaderOut = drawShader.vertexShader(vctx);
+            QMath.copy3(
+                entry * VCTR_NUM_CMPS, 
+                vertexCache.entryPosns, 
+                0, 
+                vertShaderOut.getComponents( )
+            );
+            vertexCache.entryOutputs[entry] = vctx.outputsToFragShader;
+        }
     }
 
-    private void internalProcessVertex(Triangle tri, int triVertNum) {
-        QShader.VertexShaderContext vctx = new QShader.VertexShaderContext();
-        vctx.uniforms   = slotUniforms;
-        vctx.textures   = slotTextures;
-        vctx.attributes = new float[slotAttribs.length][];
+    private void internalShadeVerticiesBatched( ) {
+        int count = vertexCache.entryCount;
+        vertexBatch.uniforms = drawUniforms;
+        vertexBatch.textures = slotTextures;
+        vertexBatch.prepare(slotAttribs.length, count);
 
         // POPULATE VERTEX SHADER INPUTS
         for (int slot = 0; slot < slotAttribs.length; slot++) {
-            // skip if slot is unused
             QAttribIndexer indexer = slotAttribs[slot];
-            if (indexer == null) { continue; }
-
-            // populate attribute slot using indexer
-            vctx.attributes[slot] = new float[indexer.getComponentsPerAttrib( )];
-            indexer.index(
-                tri.triNum, 
-                triVertNum, 
-                0, 
-                vctx.attributes[slot]
+            if (indexer == null) {
+                vertexBatch.attributes[slot] = null;
+                continue;
+            }
+            indexer.indexBatch(
+                vertexCache.entryVertIndex, 
+                count, 
+                vertexBatch.prepareAttribute(slot, indexer.getComponentsPerAttrib( ))
             );
         }
 
         // CALL SHADER
-        QShader shader = internalGetRelevantShader( );
-        internalEnsureShaderRequirements(shader);
-        QVector3 vertShaderOut  = shader.vertexShader(vctx);
-        tri.verts[triVertNum].posn          = vertShaderOut.getComponents( );
-        tri.verts[triVertNum].shaderOutputs = vctx.outputsToFragShader; 
+        drawShader.vertexShaderBatch(vertexBatch);
+
+        float[][] posnsOut = vertexBatch.positionsOut;
+        float[]   posns    = vertexCache.entryPosns;
+        for (int entry = 0; entry < count; entry++) {
+            int base = entry * VCTR_NUM_CMPS;
+            posns[base + VCTR_INDEX_X] = posnsOut[VCTR_INDEX_X][entry];
+            posns[base + VCTR_INDEX_Y] = posnsOut[VCTR_INDEX_Y][entry];
+            posns[base + VCTR_INDEX_Z] = posnsOut[VCTR_INDEX_Z][entry];
+        }
     }
 
-    private boolean internalCheckBackfacing(Triangle tri) {
+    private void internalAssembleVertex(Triangle tri, int triVertNum) {
+        // NOTE:
+        // - posns are copied as projection modifies the triangle's posn in
+        //   place. shader outputs are never written to by clipping and so
+        //   are safe to share between triangles
+        // - batched shader outputs are only converted to per vertex arrays
+        //   once a triangle actually uses them. those arrays are kept in
+        //   entryPool and reused by later draws, as nothing refers to a
+        //   vertex's outputs once it's draw is done
+        int entry = vertexCache.vertEntries[tri.triNum * VERTS_PER_TRI + triVertNum];
+        if (vertexCache.entryOutputs[entry] == null) {
+            vertexCache.entryOutputs[entry] = internalGetBatchOutputs(entry);
+        }
+
+        Vertex vert = tri.verts[triVertNum];
+        QMath.copy3(0, vert.posn, entry * VCTR_NUM_CMPS, vertexCache.entryPosns);
+        vert.shaderOutputs = vertexCache.entryOutputs[entry];
+    }
+
+    private float[][] internalGetBatchOutputs(int entry) {
+        float[][][] batchOutputs = vertexBatch.outputsToFragShader;
+        float[][]   outputs      = vertexCache.entryPool[entry];
+        if (outputs == null || outputs.length != batchOutputs.length) {
+            outputs = new float[batchOutputs.length][];
+            vertexCache.entryPool[entry] = outputs;
+        }
+
+        for (int slot = 0; slot < batchOutputs.length; slot++) {
+            if (batchOutputs[slot] == null) { 
+                outputs[slot] = null;
+                continue; 
+            }
+
+            int comps = batchOutputs[slot].length;
+            if (outputs[slot] == null || outputs[slot].length != comps) {
+                outputs[slot] = new float[comps];
+            }
+            for (int comp = 0; comp < comps; comp++) {
+                outputs[slot][comp] = batchOutputs[slot][comp][entry];
+            }
+        }
+        return outputs;
+    }
+
+    private boolean internalCheckBackfacing(Triangle tri, float[] rayToCenter) {
         // NOTE:
         //  if the dot product between the normal is > 0 for the ray
         //  from the camera to the center of the tri, then it's backfacing
-        float[] rayToCenter = QMath.new3( );
-        QMath.add3(rayToCenter, tri.getPosn(0));
+        QMath.copy3(rayToCenter, tri.getPosn(0));
         QMath.add3(rayToCenter, tri.getPosn(1));
         QMath.add3(rayToCenter, tri.getPosn(2));
         final float inv3 = 1.0f / 3.0f;
@@ -768,68 +2137,199 @@ public final class QViewer extends QEncoding {
         return (QMath.dot3(tri.normal, rayToCenter) > BACKFACE_CULL_MIN_DOT);
     }
 
-    private Triangle[] internalClipTri(Triangle tri) {
+    private void internalClipTri(Triangle tri, ClipContext clip) {
         // refer to
         // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_cliptri.c
 
-        ClipState clipState = new ClipState();
-
-        if (tri.getPosnZ(0) > nearClip) {
-            clipState.vertBehindIndicies[clipState.numVertsBehind++] = 0;
-            clipState.vertBehindState[0] = true;
-        }
-
-        if (tri.getPosnZ(1) > nearClip) {
-            clipState.vertBehindIndicies[clipState.numVertsBehind++] = 1;
-            clipState.vertBehindState[1] = true;
-        }
-
-        if (tri.getPosnZ(2) > nearClip) {
-            clipState.vertBehindIndicies[clipState.numVertsBehind++] = 2;
-            clipState.vertBehindState[2] = true;
+        // NOTE:
+        //  resulting triangles are written to clip.nearTris. an unclipped
+        //  triangle is passed through as is
+        clip.nearCount = 0;
+        int numVertsBehind = 0;
+        for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+            if (tri.getPosnZ(vert) > nearClip) {
+                clip.behind[numVertsBehind++] = vert;
+            }
         }
 
-        switch (clipState.numVertsBehind) {
+        switch (numVertsBehind) {
             // ALL VERTS BEFORE
             // triangle is not clipped
             case 0:
-                return new Triangle[] { tri };
+                clip.nearTris[clip.nearCount++] = tri;
+                return;
             
             // ALL VERTS BEHIND
             // triangle should be culled
             case 3:
-                return new Triangle[0];
+                return;
 
             // 2 VERTS BEHIND
             // triangle is turned into smaller triangle
             case 2:
-                return internalClipTriCase2(tri, clipState);
+                internalClipTriCase2(tri, clip);
+                return;
 
             // 1 VERTS BEHIND
             // triangle is clipped into 2 smaller triangles
             case 1:
-                return internalClipTriCase1(tri, clipState);
+                internalClipTriCase1(tri, clip);
+                return;
         
             // BAD STATE
             default:
                 throw new QException(
                     PointOfError.BadState, 
-                    "reached bad clipping state: " + clipState.toString()
+                    "reached bad clipping state: " + numVertsBehind + " verts behind"
                 );
         }
     }
 
-    private void internalFindClipIntersect(
-        Triangle srcTri,
-        int pI,
-        int pF,
-        float[] out
+    private void internalFindSideBounds( ) {
+        float centerX   = (viewLeft + viewRight) * 0.5f;
+        float centerY   = (viewBottom + viewTop) * 0.5f;
+        float halfGuardW = (viewRight - viewLeft) * 0.5f * GUARD_BAND_SCALE;
+        float halfGuardH = (viewTop - viewBottom) * 0.5f * GUARD_BAND_SCALE;
+
+        viewSideBounds[SIDE_PLANE_LEFT]   = viewLeft;
+        viewSideBounds[SIDE_PLANE_RIGHT]  = viewRight;
+        viewSideBounds[SIDE_PLANE_BOTTOM] = viewBottom;
+        viewSideBounds[SIDE_PLANE_TOP]    = viewTop;
+
+        guardSideBounds[SIDE_PLANE_LEFT]   = centerX - halfGuardW;
+        guardSideBounds[SIDE_PLANE_RIGHT]  = centerX + halfGuardW;
+        guardSideBounds[SIDE_PLANE_BOTTOM] = centerY - halfGuardH;
+        guardSideBounds[SIDE_PLANE_TOP]    = centerY + halfGuardH;
+    }
+
+    private static float internalSidePlaneDist(int plane, float[] posn, float bound) {
+        // NOTE:
+        //  unprojected viewspace distance to a plane through the eye, which
+        //  is >= 0 when the point projects inside of bound. as z < 0 in front
+        //  of the near plane, x / -z >= left is the same as x + left * z >= 0
+        switch (plane) {
+            case SIDE_PLANE_LEFT:
+                return posn[VCTR_INDEX_X] + bound * posn[VCTR_INDEX_Z];
+
+            case SIDE_PLANE_RIGHT:
+                return -posn[VCTR_INDEX_X] - bound * posn[VCTR_INDEX_Z];
+
+            case SIDE_PLANE_BOTTOM:
+                return posn[VCTR_INDEX_Y] + bound * posn[VCTR_INDEX_Z];
+
+            default:
+                return -posn[VCTR_INDEX_Y] - bound * posn[VCTR_INDEX_Z];
+        }
+    }
+
+    private void internalClipGuardBand(Triangle tri, ClipContext clip) {
+        // NOTE:
+        // - triangles entirely outside of one side of the view are dropped
+        //   before setup. otherwise, only triangles reaching outside of the
+        //   guard band are clipped, which bounds the screenspace size of
+        //   everything the rasterizer sees
+        // - verticies here have already been clipped to the near plane
+        int guardMask = internalFindGuardMask(tri.verts);
+        if (guardMask == GUARD_MASK_OFFSCREEN) { return; }
+        if (guardMask == 0) {
+            internalSubmitTri(tri);
+            return;
+        }
+
+        // CLIP POLYGON TO EACH CROSSED GUARD PLANE
+        Vertex[] poly      = clip.polyA;
+        Vertex[] clipped   = clip.polyB;
+        int      polyCount = VERTS_PER_TRI;
+        clip.guardCount    = 0;
+        for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+            poly[vert] = tri.getVertex(vert);
+        }
+        for (int plane = 0; plane < SIDE_PLANES; plane++) {
+            if ((guardMask & (1 << plane)) == 0) { continue; }
+            polyCount = internalClipPolygon(poly, polyCount, clipped, plane, clip);
+            Vertex[] temp = poly;
+            poly    = clipped;
+            clipped = temp;
+            if (polyCount < VERTS_PER_TRI) { return; }
+        }
+
+        // TESSELATE AS FAN
+        // the fan keeps the winding of the source triangle, and pieces of it
+        // which are entirely offscreen are dropped. verticies are copied as
+        // setup projects them in place
+        Vertex[] fanVerts = clipped;
+        Triangle fanTri   = clip.fanTri;
+        fanTri.triNum     = tri.triNum;
+        QMath.copy3(fanTri.normal, tri.normal);
+        for (int fan = 1; fan < polyCount - 1; fan++) {
+            fanVerts[0] = poly[0];
+            fanVerts[1] = poly[fan];
+            fanVerts[2] = poly[fan + 1];
+            if (internalFindGuardMask(fanVerts) == GUARD_MASK_OFFSCREEN) { continue; }
+
+            fanTri.getVertex(0).copyFrom(fanVerts[0]);
+            fanTri.getVertex(1).copyFrom(fanVerts[1]);
+            fanTri.getVertex(2).copyFrom(fanVerts[2]);
+            internalSubmitTri(fanTri);
+        }
+    }
+
+    private int internalFindGuardMask(Vertex[] verts) {
+        // NOTE:
+        //  returns a bit for every guard plane any vertex is outside of, or
+        //  GUARD_MASK_OFFSCREEN when every vertex is outside the same side
+        //  of the view itself and so nothing can be drawn
+        int guardMask = 0;
+        for (int plane = 0; plane < SIDE_PLANES; plane++) {
+            int outsideView = 0;
+            for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+                float[] posn = verts[vert].posn;
+                if (internalSidePlaneDist(plane, posn, viewSideBounds[plane]) < 0.0f) {
+                    outsideView++;
+                }
+                if (internalSidePlaneDist(plane, posn, guardSideBounds[plane]) < 0.0f) {
+                    guardMask |= (1 << plane);
+                }
+            }
+            if (outsideView == VERTS_PER_TRI) { return GUARD_MASK_OFFSCREEN; }
+        }
+        return guardMask;
+    }
+
+    private int internalClipPolygon(
+        Vertex[]    polyIn, 
+        int         countIn, 
+        Vertex[]    polyOut, 
+        int         plane, 
+        ClipContext clip
     ) {
-        internalFindClipIntersect(
-            srcTri.getPosn(pI),
-            srcTri.getPosn(pF),
-            out
-        );
+        // NOTE:
+        //  sutherland-hodgman against one guard plane. attributes vary
+        //  linearly in viewspace, so they're interpolated with the same
+        //  factor as the position
+        float   bound    = guardSideBounds[plane];
+        float[] clipPosn = clip.scratchC;
+        int     countOut = 0;
+        for (int i = 0; i < countIn; i++) {
+            Vertex vI    = polyIn[i];
+            Vertex vF    = polyIn[(i + 1) % countIn];
+            float  distI = internalSidePlaneDist(plane, vI.posn, bound);
+            float  distF = internalSidePlaneDist(plane, vF.posn, bound);
+
+            if (distI >= 0.0f) {
+                polyOut[countOut++] = vI;
+            }
+            if ((distI >= 0.0f) == (distF >= 0.0f)) { continue; }
+
+            float factor = distI / (distI - distF);
+            for (int comp = 0; comp < VCTR_NUM_CMPS; comp++) {
+                clipPosn[comp] = vI.posn[comp] + (vF.posn[comp] - vI.posn[comp]) * factor;
+            }
+            Vertex vClip = clip.nextGuardVert( );
+            vClip.setClipped(vI, vF, factor, clipPosn);
+            polyOut[countOut++] = vClip;
+        }
+        return countOut;
     }
 
     private void internalFindClipIntersect(
@@ -853,12 +2353,12 @@ public final class QViewer extends QEncoding {
     private float internalFindClipInterpolationFactor(
         float[] pI,
         float[] pF,
-        float[] pClip
+        float[] pClip,
+        float[] temp
     ) {
         // NOTE:
         // takes a starting, ending, and middle position, generates
         // interpolation factor between pI to pF (0 for pI, 1 for pF)
-        float[] temp = QMath.new3( );
         QMath.copy3(temp, pF);
         QMath.sub3(temp, pI);
         float magTotal = QMath.fastmag3(temp);
@@ -870,61 +2370,37 @@ public final class QViewer extends QEncoding {
         return magIntersect / magTotal;
     }
 
-    private Triangle[] internalClipTriCase1(Triangle tri, ClipState clipState) {
-        // refer to
-        // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_cliptri.c
-
-        // NOTE:
-        // - all faces must be constructed in CLOCKWISE winding order.
-        // - when 1 vertex is clipped, generated face is a quad
-        // - triangle will be re-shuffled so that it remains CLOCKWISE where pos2 is clipped
-        // - (this is slightly different from Casesium where pos0 is clipped)
-
-        Triangle shuffledTri = new Triangle(tri);
-
-        // SHUFFLE TRIANGLE
-        switch (clipState.vertBehindIndicies[0]) {
-            // SHUFFLE (0, 1, 2) -> (1, 2, 0)
-            case 0:
-
-                shuffledTri.swapVerts(0, 2); // (0 1 2) -> (2 1 0)
-                shuffledTri.swapVerts(0, 1); // (2 1 0) -> (1 2 0)
-                break;
-
-            // SHUFFLE (0, 1, 2) -> (2, 0, 1)
-            case 1:
-
-                shuffledTri.swapVerts(0, 2); // (0 1 2) -> (2 1 0)
-                shuffledTri.swapVerts(1, 2); // (2 1 0) -> (2 0 1)
-                break;
-
-            // SHUFFLE (0, 1, 2) -> (0, 1, 2)
-            // or rather, no shuffle
-            case 2:
-
-                break;
-        
-            default:
-                throw new QException(
-                    PointOfError.BadState,
-                    "bad clip state: " + clipState.toString()
-                );
-        }
+    private void internalClipTriCase1(Triangle tri, ClipContext clip) {
+        // refer to
+        // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_cliptri.c
+
+        // NOTE:
+        // - all faces must be constructed in CLOCKWISE winding order.
+        // - when 1 vertex is clipped, generated face is a quad
+        // - verticies are read shuffled so that the triangle remains CLOCKWISE
+        //   where s2 is clipped, that is, (s0 s1 s2) is (1 2 0), (2 0 1) or (0 1 2)
+        // - (this is slightly different from Casesium where pos0 is clipped)
+        int    behind = clip.behind[0];
+        Vertex s0     = tri.getVertex((behind + 1) % VERTS_PER_TRI);
+        Vertex s1     = tri.getVertex((behind + 2) % VERTS_PER_TRI);
+        Vertex s2     = tri.getVertex(behind);
 
-        float[] pos02 = new float[VCTR_NUM_CMPS];
-        float[] pos12 = new float[VCTR_NUM_CMPS];
-        internalFindClipIntersect(shuffledTri, 0, 2, pos02);
-        internalFindClipIntersect(shuffledTri, 1, 2, pos12);
+        float[] pos02 = clip.scratchA;
+        float[] pos12 = clip.scratchB;
+        internalFindClipIntersect(s0.posn, s2.posn, pos02);
+        internalFindClipIntersect(s1.posn, s2.posn, pos12);
 
         float fac02 = internalFindClipInterpolationFactor(
-            shuffledTri.getPosn(0), 
-            shuffledTri.getPosn(2), 
-            pos02
+            s0.posn, 
+            s2.posn, 
+            pos02,
+            clip.scratchC
         );
         float fac12 = internalFindClipInterpolationFactor(
-            shuffledTri.getPosn(1), 
-            shuffledTri.getPosn(2), 
-            pos12
+            s1.posn, 
+            s2.posn, 
+            pos12,
+            clip.scratchC
         );
 
         // NOTE:
@@ -932,148 +2408,45 @@ public final class QViewer extends QEncoding {
         // - our quad is 0/2, 0, 1, 1/2 (where a/b is clipped interpolation),
         //   which will be tesselated as (0/2, 0, 1), (0/2, 1, 1/2)
 
-        Triangle quadTri0 = new Triangle(shuffledTri);
-        quadTri0.getVertex(2).findClippedShaderOutputs(
-            shuffledTri.getVertex(0),
-            shuffledTri.getVertex(2), 
-            fac02
-        );
-        quadTri0.setPosn(2, pos02); // (0 1 2) -> (0 1 0/2)
-        quadTri0.swapVerts(0, 2);     // (0 1 0/2) -> (0/2 1 0)
-        quadTri0.swapVerts(1, 2);     // (0/2 1 0) -> (0/2 0 1)
+        Triangle quadTri0 = clip.nextNearTri(tri);
+        quadTri0.getVertex(0).setClipped(s0, s2, fac02, pos02);
+        quadTri0.getVertex(1).copyFrom(s0);
+        quadTri0.getVertex(2).copyFrom(s1);
         
-        Triangle quadTri1 = new Triangle(shuffledTri); // (0 1 2)
-        quadTri1.getVertex(0).findClippedShaderOutputs(
-            shuffledTri.getVertex(0),
-            shuffledTri.getVertex(2), 
-            fac02
-        );
-        quadTri1.setPosn(0, pos02); // (0 1 2) -> (0/2 1 2)
-        quadTri1.getVertex(2).findClippedShaderOutputs(
-            shuffledTri.getVertex(1),
-            shuffledTri.getVertex(2), 
-            fac12
-        );
-        quadTri1.setPosn(2, pos12); // (0/2 1 2) -> (0/2 1 1/2)
-        
-        return new Triangle[] { quadTri0, quadTri1 };
+        Triangle quadTri1 = clip.nextNearTri(tri);
+        quadTri1.getVertex(0).setClipped(s0, s2, fac02, pos02);
+        quadTri1.getVertex(1).copyFrom(s1);
+        quadTri1.getVertex(2).setClipped(s1, s2, fac12, pos12);
 
     }
 
-    private Triangle[] internalClipTriCase2(Triangle tri, ClipState clipState) {
+    private void internalClipTriCase2(Triangle tri, ClipContext clip) {
         // refer to
         // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_cliptri.c
 
-        // TESSELATE TRIANGLE BASED ON 2 CLIPPED VERTICIES
-        switch (clipState.vertBehindIndicies[0] + clipState.vertBehindIndicies[1]) {
-            // VERTS 1 & 2 ARE CLIPPED
-            case (1 + 2):
-
-                float[] pos10 = new float[VCTR_NUM_CMPS];
-                float[] pos20 = new float[VCTR_NUM_CMPS];
-                internalFindClipIntersect(tri, 1, 0, pos10);
-                internalFindClipIntersect(tri, 2, 0, pos20);
-                float fac10 = internalFindClipInterpolationFactor(
-                    tri.getPosn(1), 
-                    tri.getPosn(0), 
-                    pos10
-                );
-                float fac20 = internalFindClipInterpolationFactor(
-                    tri.getPosn(2), 
-                    tri.getPosn(0), 
-                    pos20
-                );
-                
-                tri.getVertex(1).findClippedShaderOutputs(
-                    tri.getVertex(1), 
-                    tri.getVertex(0), 
-                    fac10
-                );
-                tri.setPosn(1, pos10);
-                
-                tri.getVertex(2).findClippedShaderOutputs(
-                    tri.getVertex(2), 
-                    tri.getVertex(0), 
-                    fac20
-                );
-                tri.setPosn(2, pos20);
-
-                return new Triangle[] { tri };
-
-            // VERTS 0 & 2 ARE CLIPPED
-            case (0 + 2):
-
-                float[] pos01 = new float[VCTR_NUM_CMPS];
-                float[] pos21 = new float[VCTR_NUM_CMPS];
-                internalFindClipIntersect(tri, 0, 1, pos01);
-                internalFindClipIntersect(tri, 2, 1, pos21);
-                float fac01 = internalFindClipInterpolationFactor(
-                    tri.getPosn(0), 
-                    tri.getPosn(1), 
-                    pos01
-                );
-                float fac21 = internalFindClipInterpolationFactor(
-                    tri.getPosn(2), 
-                    tri.getPosn(1), 
-                    pos21
-                );
-                
-                tri.getVertex(0).findClippedShaderOutputs(
-                    tri.getVertex(0), 
-                    tri.getVertex(1), 
-                    fac01
-                );
-                tri.setPosn(0, pos01);
-
-                tri.getVertex(2).findClippedShaderOutputs(
-                    tri.getVertex(2), 
-                    tri.getVertex(1), 
-                    fac21
-                );
-                tri.setPosn(2, pos21);
-
-                return new Triangle[] { tri };
-
-            // VERTS 0 & 1 ARE CLIPPED
-            case (0 + 1):
-
-                float[] pos02 = new float[VCTR_NUM_CMPS];
-                float[] pos12 = new float[VCTR_NUM_CMPS];
-                internalFindClipIntersect(tri, 0, 2, pos02);
-                internalFindClipIntersect(tri, 1, 2, pos12);
-                float fac02 = internalFindClipInterpolationFactor(
-                    tri.getPosn(0), 
-                    tri.getPosn(2), 
-                    pos02
-                );
-                float fac12 = internalFindClipInterpolationFactor(
-                    tri.getPosn(1), 
-                    tri.getPosn(2), 
-                    pos12
-                );
-                
-                tri.getVertex(0).findClippedShaderOutputs(
-                    tri.getVertex(0), 
-                    tri.getVertex(2), 
-                    fac02
-                );
-                tri.setPosn(0, pos02);
-                
-                tri.getVertex(1).findClippedShaderOutputs(
-                    tri.getVertex(1), 
-                    tri.getVertex(2), 
-                    fac12
-                );
-                tri.setPosn(1, pos12);
+        // NOTE:
+        //  both clipped verticies are moved toward the remaining one along
+        //  their edge, and stay in place so winding is unchanged
+        int    inside = (0 + 1 + 2) - clip.behind[0] - clip.behind[1];
+        Vertex vIn    = tri.getVertex(inside);
+
+        Triangle clipTri = clip.nextNearTri(tri);
+        for (int vert = 0; vert < VERTS_PER_TRI; vert++) {
+            if (vert == inside) {
+                clipTri.getVertex(vert).copyFrom(vIn);
+                continue;
+            }
 
-                return new Triangle[] { tri };
-        
-            // BAD STATE
-            default:
-                throw new QException(
-                    PointOfError.BadState, 
-                    "Bad clip state:" + clipState.toString()
-                );
+            Vertex  vBehind = tri.getVertex(vert);
+            float[] posClip = clip.scratchA;
+            internalFindClipIntersect(vBehind.posn, vIn.posn, posClip);
+            float facClip = internalFindClipInterpolationFactor(
+                vBehind.posn, 
+                vIn.posn, 
+                posClip,
+                clip.scratchC
+            );
+            clipTri.getVertex(vert).setClipped(vBehind, vIn, facClip, posClip);
         }
 
     }
@@ -1098,9 +2471,10 @@ public final class QViewer extends QEncoding {
 
     }
 
-    private void internalDrawTri(Triangle tri) {
+    private SetupTri internalSetupTri(Triangle tri, SetupTri setup) {
         
         // NOTE:
+        // - setup is overwritten and returned, see SetupTri
         // - from this point forward, all z values will be inverted
         tri.getVertex(0).project();
         tri.getVertex(1).project();
@@ -1111,266 +2485,1132 @@ public final class QViewer extends QEncoding {
         internalMapVertToScreenSpace(tri, 1);
         internalMapVertToScreenSpace(tri, 2);
 
+        setup.reset( );
+        QMath.copy3(setup.normal, tri.normal);
+
+        // NOTE:
+        // - verticies are snapped to the subpixel grid, and the snapped
+        //   positions are written back so that the attribute planes are
+        //   built from exactly the triangle which is rasterized
+        // - non-finite positions can't be snapped and are left empty
+        int[] subX = setup.edgeX;
+        int[] subY = setup.edgeY;
+        for (int vertNum = 0; vertNum < VERTS_PER_TRI; vertNum++) {
+            float posnX = tri.getPosnX(vertNum);
+            float posnY = tri.getPosnY(vertNum);
+            if (!Float.isFinite(posnX) || !Float.isFinite(posnY)) { return setup; }
+            subX[vertNum] = Math.round(posnX * SUBPIXEL_SCALE);
+            subY[vertNum] = Math.round(posnY * SUBPIXEL_SCALE);
+            tri.setPosnX(vertNum, (float)subX[vertNum] / SUBPIXEL_SCALE);
+            tri.setPosnY(vertNum, (float)subY[vertNum] / SUBPIXEL_SCALE);
+        }
+
         // NOTE:
-        // - a triangle must be rasterized in two parts, a line will be cut
-        //   through it's middle highest verticie horizontally, and each partition
-        //   will be draw seperately
-        // - the triangle will have to be sorted by height then cut
-        // - after being cut, the top two verticies will be sorted from left to right
+        // - twice the signed area of the triangle, which is also the value of
+        //   edge 2 (v0 -> v1) at v2. if it is negative the winding is flipped
+        //   in screenspace, so all edges are negated to keep the inside >= 0
+        // - degenerate triangles cover no pixels and are left empty
+        long area = 
+            (long)(subX[1] - subX[0]) * (subY[2] - subY[0]) -
+            (long)(subY[1] - subY[0]) * (subX[2] - subX[0]);
+        if (area == 0L) { return setup; }
+
+        int orient    = (area > 0L) ? 1 : -1;
+        setup.invArea = 1.0f / (float)(area * orient);
 
-        Triangle sortedTri = internalSortTriVertsByHeight(tri);
+        // NOTE:
+        // - edge n starts at vertex n + 1. the snapped verticies are held in
+        //   locals as edgeX/edgeY are overwritten as the edges are built
+        // - the top left rule: a sample exactly on an edge belongs to the
+        //   triangle only if the edge is a left edge (inside is towards +x) or
+        //   a top edge (horizontal, with the inside below it). an edge shared
+        //   by two triangles faces opposite ways in each, so exactly one of
+        //   them owns it's samples
+        int vX0 = subX[0], vX1 = subX[1], vX2 = subX[2];
+        int vY0 = subY[0], vY1 = subY[1], vY2 = subY[2];
+        for (int edge = 0; edge < EDGES_PER_TRI; edge++) {
+            int vI = (edge + 1) % VERTS_PER_TRI;
+            int vF = (edge + 2) % VERTS_PER_TRI;
+            int xI = (vI == 0) ? vX0 : ((vI == 1) ? vX1 : vX2);
+            int yI = (vI == 0) ? vY0 : ((vI == 1) ? vY1 : vY2);
+            int xF = (vF == 0) ? vX0 : ((vF == 1) ? vX1 : vX2);
+            int yF = (vF == 0) ? vY0 : ((vF == 1) ? vY1 : vY2);
+
+            int edgeA = (yI - yF) * orient;
+            int edgeB = (xF - xI) * orient;
+            boolean topLeft = (edgeA > 0) || (edgeA == 0 && edgeB < 0);
+
+            setup.edgeX[edge]     = xI;
+            setup.edgeY[edge]     = yI;
+            setup.edgeA[edge]     = edgeA;
+            setup.edgeB[edge]     = edgeB;
+            setup.edgeBias[edge]  = topLeft ? 0 : -1;
+            setup.edgeStepX[edge] = edgeA << SUBPIXEL_BITS;
+            setup.edgeStepY[edge] = edgeB << SUBPIXEL_BITS;
+        }
 
-        float invSlope20 =
-            (sortedTri.getPosnX(0) - sortedTri.getPosnX(2)) / 
-            (sortedTri.getPosnY(0) - sortedTri.getPosnY(2));
-        float dY21 = sortedTri.getPosnY(1) - sortedTri.getPosnY(2);
+        internalSetupPlanes(setup, tri);
 
-        float[] midPoint = new float[] {
-            sortedTri.getPosnX(2) + (invSlope20 * dY21),
-            sortedTri.getPosnY(1),
-            0.0f // Z value can be ignored as interpolation uses unsplit tri
-        };
+        // NOTE:
+        //  depth varies linearly over the triangle, so it's nearest point is
+        //  always one of the verticies
+        setup.minDepth = Math.min(
+            tri.getPosn(0)[VCTR_INDEX_Z], 
+            Math.min(tri.getPosn(1)[VCTR_INDEX_Z], tri.getPosn(2)[VCTR_INDEX_Z])
+        );
 
-        // flatTopTri is (1, mid, 2)
-        Triangle flatTopTri = new Triangle(sortedTri);
-        flatTopTri.swapVerts(0, 1); // (0 1 2) -> (1 0 2)
-        flatTopTri.setPosn(1, midPoint); // (1 0 2) -> (1 mid 2)
+        // FIND BOUNDS
+        // pixel (x, y) is sampled at it's center (x + 0.5, y + 0.5)
+        float minVX = Math.min(tri.getPosnX(0), Math.min(tri.getPosnX(1), tri.getPosnX(2)));
+        float maxVX = Math.max(tri.getPosnX(0), Math.max(tri.getPosnX(1), tri.getPosnX(2)));
+        float minVY = Math.min(tri.getPosnY(0), Math.min(tri.getPosnY(1), tri.getPosnY(2)));
+        float maxVY = Math.max(tri.getPosnY(0), Math.max(tri.getPosnY(1), tri.getPosnY(2)));
 
-        // flatBottomTri is (1, mid, 0)
-        Triangle flatBottomTri = new Triangle(sortedTri);
-        flatBottomTri.swapVerts(0, 1); // (0 1 2) -> (1 0 2)
-        flatBottomTri.swapVerts(1, 2); // (1 0 2) -> (1 2 0)
-        flatBottomTri.setPosn(1, midPoint); // (1 2 0) -> (1 mid 0)
+        setup.minX = Math.max((int)Math.ceil(minVX - PIXEL_CENTER), 0);
+        setup.maxX = Math.min((int)Math.floor(maxVX - PIXEL_CENTER), renderTarget.getWidth( ) - 1);
+        setup.minY = Math.max((int)Math.ceil(minVY - PIXEL_CENTER), 0);
+        setup.maxY = Math.min((int)Math.floor(maxVY - PIXEL_CENTER), renderTarget.getHeight( ) - 1);
 
-        internalDrawFlatTopTri(flatTopTri, sortedTri);
-        internalDrawFlatBottomTri(flatBottomTri, sortedTri);
+        return setup;
 
     }
 
-    private Triangle internalSortTriVertsByHeight(Triangle tri) { 
+    private void internalSetupPlanes(SetupTri setup, Triangle tri) {
 
-        if (tri.getPosnY(2) > tri.getPosnY(1)) {
-            tri.swapVerts(2, 1);
+        // NOTE:
+        // - attribute * invZ and invZ itself both vary linearly in screenspace,
+        //   so each is stored once per triangle as a plane and then stepped
+        //   along the raster with adds. dividing by the invZ plane at a pixel
+        //   gives the perspective-correct attribute
+        // - the gradient of barycentric weight n is (edgeA, edgeB) * invArea
+        //   per subpixel, so the gradient of a plane is the weighted sum of
+        //   it's vertex values. planes themselves are stepped per pixel
+        // - in principle, all vertex outputs/fragment inputs should be formatted
+        //   the same, so we will use v0 as a reference
+
+        float[][] outputs0 = tri.getVertex(0).shaderOutputs;
+
+        int planeCount = 1;
+        for (int slot = 0; slot < outputs0.length; slot++) {
+            if (outputs0[slot] != null) { planeCount += outputs0[slot].length; }
         }
-        if (tri.getPosnY(1) > tri.getPosnY(0)) {
-            tri.swapVerts(1, 0);
+        setup.prepare(outputs0.length, planeCount);
+
+        int planeOffset = 1;
+        for (int slot = 0; slot < outputs0.length; slot++) {
+            if (outputs0[slot] == null) {
+                setup.slotOffsets[slot] = -1;
+                setup.slotSizes[slot]   = 0;
+                continue;
+            }
+            setup.slotOffsets[slot] = planeOffset;
+            setup.slotSizes[slot]   = outputs0[slot].length;
+            planeOffset += outputs0[slot].length;
         }
-        if (tri.getPosnY(2) > tri.getPosnY(1)) {
-            tri.swapVerts(2, 1);
+
+        setup.planeX = tri.getPosnX(0);
+        setup.planeY = tri.getPosnY(0);
+
+        float gradX0 = setup.edgeStepX[0] * setup.invArea;
+        float gradX1 = setup.edgeStepX[1] * setup.invArea;
+        float gradX2 = setup.edgeStepX[2] * setup.invArea;
+        float gradY0 = setup.edgeStepY[0] * setup.invArea;
+        float gradY1 = setup.edgeStepY[1] * setup.invArea;
+        float gradY2 = setup.edgeStepY[2] * setup.invArea;
+
+        float invZ0 = tri.getPosnZ(0);
+        float invZ1 = tri.getPosnZ(1);
+        float invZ2 = tri.getPosnZ(2);
+
+        setup.planeOrigin[0] = invZ0;
+        setup.planeDX[0]     = gradX0 * invZ0 + gradX1 * invZ1 + gradX2 * invZ2;
+        setup.planeDY[0]     = gradY0 * invZ0 + gradY1 * invZ1 + gradY2 * invZ2;
+
+        for (int slot = 0; slot < outputs0.length; slot++) {
+            int offset = setup.slotOffsets[slot];
+            if (offset < 0) { continue; }
+
+            float[] output0 = tri.getVertex(0).shaderOutputs[slot];
+            float[] output1 = tri.getVertex(1).shaderOutputs[slot];
+            float[] output2 = tri.getVertex(2).shaderOutputs[slot];
+
+            for (int comp = 0; comp < output0.length; comp++) {
+                float q0 = output0[comp] * invZ0;
+                float q1 = output1[comp] * invZ1;
+                float q2 = output2[comp] * invZ2;
+                setup.planeOrigin[offset + comp] = q0;
+                setup.planeDX[offset + comp]     = gradX0 * q0 + gradX1 * q1 + gradX2 * q2;
+                setup.planeDY[offset + comp]     = gradY0 * q0 + gradY1 * q1 + gradY2 * q2;
+            }
         }
 
-        return tri;
+    }
 
+    private void internalDrawTri(Triangle tri) {
+        SetupTri setup = internalSetupTri(tri, rasterContexts.get( ).setup);
+        if (setup.isEmpty( )) { return; }
+        internalRasterizeSetupTri(
+            setup, 
+            0, 
+            0, 
+            renderTarget.getWidth( ) - 1, 
+            renderTarget.getHeight( ) - 1, 
+            RASTER_PASS_FULL
+        );
     }
 
-    private void internalDrawFlatTopTri(Triangle flatTri, Triangle sortedTri) {
-        
-        // NOTE: 
-        // - vertex arrangement is as follows:
-        //   0 -> LEFT, 1 -> RIGHT, 2 -> BOTTOM POINT
-        // - flattop triangle is drawn from bottom to top
+    private void internalRasterizeSetupTri(
+        SetupTri setup,
+        int      clipMinX,
+        int      clipMinY,
+        int      clipMaxX,
+        int      clipMaxY,
+        int      pass
+    ) {
 
-        // sort top 2 verticies from left to right
-        if (flatTri.getPosnX(0) > flatTri.getPosnX(1)) {
-            flatTri.swapVerts(1, 0);
+        // NOTE:
+        // - the bounding box is walked in RASTER_BLOCK_SIZE square blocks
+        //   which are aligned to the screen, not to the clip rect. the edge
+        //   functions are evaluated directly only at each block's origin
+        //   and are then stepped with adds. edges are exact integers, so
+        //   every sample is covered by exactly one of any two triangles
+        //   sharing an edge, and binned output matches serial
+        // - blocks outside any edge are skipped, and blocks inside all edges
+        //   skip the per pixel coverage test
+
+        int X_START = Math.max(setup.minX, clipMinX);
+        int X_END   = Math.min(setup.maxX, clipMaxX);
+        int Y_START = Math.max(setup.minY, clipMinY);
+        int Y_END   = Math.min(setup.maxY, clipMaxY);
+        if (X_START > X_END || Y_START > Y_END) { return; }
+        // NOTE:
+        //  the shading pass accepts fragments equal to the stored depth,
+        //  so occlusion is tested without the depth test's epsilon
+        float occludeEpsilon = (pass == RASTER_PASS_SHADE) ? 0.0f : DEPTH_TEST_EPSILON;
+        if (hierarchicalZ && internalTriOccluded(setup, X_START, Y_START, X_END, Y_END, occludeEpsilon)) { 
+            return; 
         }
 
-        float invDY = 1.0f / (flatTri.getPosnY(0) - flatTri.getPosnY(2));
-        if (Float.isNaN(invDY)) { return; }
-
-        float invSlope20 = (flatTri.getPosnX(0) - flatTri.getPosnX(2)) * invDY;
-        float invSlope21 = (flatTri.getPosnX(1) - flatTri.getPosnX(2)) * invDY;
+        boolean vectorize = vectorRaster && VECTOR_RASTER_AVAILABLE;
+
+        RasterContext rctx = rasterContexts.get( );
+        rctx.prepare(setup);
+        rctx.fctx.uniforms = drawUniforms;
+        rctx.fctx.textures = slotTextures;
+        rctx.fctx.target   = renderTarget;
+
+        int[]   blockEdges  = rctx.blockEdges;
+        int[]   blockStepX  = rctx.blockStepX;
+        int[]   blockStepY  = rctx.blockStepY;
+        float[] planeDY     = setup.planeDY;
+        int     planeCount  = setup.planeCount;
+        float[] rowPlanes   = rctx.rowPlanes;
+        float[] abovePlanes = rctx.abovePlanes;
+
+        for (int blockY = Y_START & RASTER_BLOCK_MASK; blockY <= Y_END; blockY += RASTER_BLOCK_SIZE) {
+            for (int blockX = X_START & RASTER_BLOCK_MASK; blockX <= X_END; blockX += RASTER_BLOCK_SIZE) {
+
+                float originX  = blockX + PIXEL_CENTER;
+                float originY  = blockY + PIXEL_CENTER;
+                int   coverage = setup.classifyBlock(blockX, blockY, blockEdges, blockStepX, blockStepY);
+                if (coverage == BLOCK_OUTSIDE) { continue; }
+                if (hierarchicalZ && internalBlockOccluded(setup, blockX, blockY, originX, originY, occludeEpsilon)) {
+                    continue;
+                }
+                boolean acceptAll = (coverage == BLOCK_INSIDE);
+
+                int subXStart = Math.max(blockX, X_START);
+                int subXEnd   = Math.min(blockX + RASTER_BLOCK_SIZE - 1, X_END);
+                int subYStart = Math.max(blockY, Y_START);
+                int subYEnd   = Math.min(blockY + RASTER_BLOCK_SIZE - 1, Y_END);
+
+                int rowE0 = blockEdges[0];
+                int rowE1 = blockEdges[1];
+                int rowE2 = blockEdges[2];
+                for (int plane = 0; plane < planeCount; plane++) {
+                    rowPlanes[plane] = setup.evalPlane(plane, originX, originY);
+                }
 
-        int Y_START = Math.max((int)flatTri.getPosnY(2), 0);
-        int Y_END   = Math.min((int)flatTri.getPosnY(0), renderTarget.getHeight() - 1);
+                // NOTE:
+                // - blocks are walked in 2x2 quads, starting from the block's
+                //   origin so that quads are aligned to the screen. pixels of
+                //   a quad which are outside of the triangle or the clip rect
+                //   are never written, but are still interpolated to find the
+                //   quad's derivatives
+                // - rowPlanes and abovePlanes are the planes at the start of
+                //   the quad row's two block rows. every pixel is found from
+                //   them as lane * planeDX + row, exactly as QSpanRaster does,
+                //   so the scalar and vector paths give identical output
+                for (int quadY = blockY; quadY <= subYEnd; quadY += QUAD_SIZE) {
+
+                    if (quadY + 1 >= subYStart && vectorize) {
+                        internalDrawQuadRowVectorized(
+                            setup, 
+                            rctx, 
+                            blockX, 
+                            quadY, 
+                            subXStart, 
+                            subXEnd, 
+                            subYStart, 
+                            subYEnd, 
+                            acceptAll, 
+                            rowE0, 
+                            rowE1, 
+                            rowE2, 
+                            pass
+                        );
+                    } else if (quadY + 1 >= subYStart) {
+                        int pixE0 = rowE0;
+                        int pixE1 = rowE1;
+                        int pixE2 = rowE2;
+                        for (int plane = 0; plane < planeCount; plane++) {
+                            abovePlanes[plane] = rowPlanes[plane] + planeDY[plane];
+                        }
 
-        for (int drawY = Y_START; drawY <= Y_END; drawY++) {
+                        for (int quadX = blockX; quadX <= subXEnd; quadX += QUAD_SIZE) {
+
+                            int quadMask = 0;
+                            for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+                                int offsetX = quadPixel & 1;
+                                int offsetY = quadPixel >> 1;
+                                int drawX   = quadX + offsetX;
+                                int drawY   = quadY + offsetY;
+                                if (drawX < subXStart || drawX > subXEnd) { continue; }
+                                if (drawY < subYStart || drawY > subYEnd) { continue; }
+
+                                boolean inside = 
+                                    acceptAll || (
+                                        pixE0 + offsetX * blockStepX[0] + offsetY * blockStepY[0] >= 0 &&
+                                        pixE1 + offsetX * blockStepX[1] + offsetY * blockStepY[1] >= 0 &&
+                                        pixE2 + offsetX * blockStepX[2] + offsetY * blockStepY[2] >= 0
+                                    );
+                                if (inside) { quadMask |= (1 << quadPixel); }
+                            }
+                            if (quadMask != 0) {
+                                internalDrawQuad(quadX, quadY, quadX - blockX, quadMask, setup, rctx, pass);
+                            }
+
+                            pixE0 += blockStepX[0] * QUAD_SIZE;
+                            pixE1 += blockStepX[1] * QUAD_SIZE;
+                            pixE2 += blockStepX[2] * QUAD_SIZE;
+                        }
+                    }
 
-            float distY = Math.max(0.0f, drawY - flatTri.getPosnY(2));
-            int X_START = Math.max(
-                (int)(flatTri.getPosnX(2) + (invSlope20 * distY)),
-                0
-            );
-            int X_END   = Math.min(
-                (int)(flatTri.getPosnX(2) + (invSlope21 * distY)), 
-                renderTarget.getWidth() - 1
-            );
+                    rowE0 += blockStepY[0] * QUAD_SIZE;
+                    rowE1 += blockStepY[1] * QUAD_SIZE;
+                    rowE2 += blockStepY[2] * QUAD_SIZE;
+                    for (int plane = 0; plane < planeCount; plane++) {
+                        rowPlanes[plane] += planeDY[plane] * QUAD_SIZE;
+                    }
+                }
 
-            for (int drawX = X_START; drawX <= X_END; drawX++) {
-                internalDrawFragment(drawX, drawY, sortedTri);
             }
-
         }
 
     }
 
-    private void internalDrawFlatBottomTri(Triangle flatTri, Triangle sortedTri) {
-        
-        // NOTE: 
-        // - vertex arrangement is as follows:
-        //   0 -> LEFT, 1 -> RIGHT, 2 -> TOP POINT
-        // - flatbottom triangle is drawn from bottom to top
+    private boolean internalTriOccluded(
+        SetupTri setup,
+        int      xStart,
+        int      yStart,
+        int      xEnd,
+        int      yEnd,
+        float    occludeEpsilon
+    ) {
+        // NOTE:
+        // - a fragment fails the depth test when it's depth is greater than
+        //   the stored depth - occludeEpsilon. so if the nearest point of
+        //   the triangle fails against the farthest depth of every tile it
+        //   touches, none of it's fragments can pass
+        float nearest = setup.minDepth - HIZ_REJECT_EPSILON;
+        for (int tileY = yStart >> RASTER_BLOCK_SHIFT; tileY <= yEnd >> RASTER_BLOCK_SHIFT; tileY++) {
+            for (int tileX = xStart >> RASTER_BLOCK_SHIFT; tileX <= xEnd >> RASTER_BLOCK_SHIFT; tileX++) {
+                float farthest = renderTarget.getDepthTileMax(tileX, tileY);
+                if (nearest <= farthest - occludeEpsilon) { return false; }
+            }
+        }
+        return true;
+    }
+
+    private boolean internalBlockOccluded(
+        SetupTri setup,
+        int      blockX,
+        int      blockY,
+        float    originX,
+        float    originY,
+        float    occludeEpsilon
+    ) {
+        // NOTE:
+        // - the depth plane is linear, so it's nearest value over the block is
+        //   at one of the block's corner pixels. the triangle's own nearest
+        //   depth is also a bound, and the tighter of the two is used
+        // - HIZ_REJECT_EPSILON covers the difference between evaluating the
+        //   plane here and stepping it along the raster
+        float nearest = 
+            setup.evalPlane(0, originX, originY) + 
+            Math.min(0.0f, setup.planeDX[0] * RASTER_BLOCK_SPAN) + 
+            Math.min(0.0f, setup.planeDY[0] * RASTER_BLOCK_SPAN);
+        nearest = Math.max(nearest, setup.minDepth) - HIZ_REJECT_EPSILON;
+
+        float farthest = renderTarget.getDepthTileMax(
+            blockX >> RASTER_BLOCK_SHIFT, 
+            blockY >> RASTER_BLOCK_SHIFT
+        );
+        return nearest > farthest - occludeEpsilon;
+    }
 
-        // sort bottom 2 verticies from left to right
-        if (flatTri.getPosnX(0) > flatTri.getPosnX(1)) {
-            flatTri.swapVerts(1, 0);
+    private void internalBinTri(Triangle tri) {
+        // NOTE:
+        //  binned triangles are kept until the whole draw is set up, so each
+        //  takes the next unused pooled setup. an empty one is never added
+        //  to setupTris, so it's reused by the next triangle
+        int setupIndex = setupTris.size( );
+        if (setupIndex == setupPool.size( )) {
+            setupPool.add(new SetupTri( ));
         }
+        SetupTri setup = internalSetupTri(tri, setupPool.get(setupIndex));
+        if (setup.isEmpty( )) { return; }
+        setupTris.add(setup);
+    }
 
-        float invDY = 1.0f / (flatTri.getPosnY(2) - flatTri.getPosnY(0));
-        if (Float.isNaN(invDY)) { return; }
+    private void internalRasterizeBins( ) {
 
-        float invSlope02 = (flatTri.getPosnX(2) - flatTri.getPosnX(0)) * invDY;
-        float invSlope12 = (flatTri.getPosnX(2) - flatTri.getPosnX(1)) * invDY;
+        // NOTE:
+        // - every setup triangle is added to each tile its bounds overlap, in
+        //   draw order. each tile then owns a disjoint set of pixels, so tiles
+        //   can be rasterized in parallel while each pixel still sees its
+        //   fragments in exactly the same order as the serial path
+
+        int tilesX = (renderTarget.getWidth( )  + binTileSize - 1) / binTileSize;
+        int tilesY = (renderTarget.getHeight( ) + binTileSize - 1) / binTileSize;
+        if (tilesX != binTilesX || tilesY != binTilesY) {
+            binTilesX = tilesX;
+            binTilesY = tilesY;
+            bins      = new TileBin[tilesX * tilesY];
+            for (int i = 0; i < bins.length; i++) {
+                bins[i] = new TileBin( );
+            }
+        }
 
-        int Y_START = Math.max((int)flatTri.getPosnY(0), 0);
-        int Y_END   = Math.min((int)flatTri.getPosnY(2), renderTarget.getHeight() - 1);
+        for (int setupIndex = 0; setupIndex < setupTris.size( ); setupIndex++) {
+            SetupTri setup = setupTris.get(setupIndex);
+            int tileX0 = setup.minX / binTileSize;
+            int tileX1 = setup.maxX / binTileSize;
+            int tileY0 = setup.minY / binTileSize;
+            int tileY1 = setup.maxY / binTileSize;
+            for (int tileY = tileY0; tileY <= tileY1; tileY++) {
+                for (int tileX = tileX0; tileX <= tileX1; tileX++) {
+                    bins[tileX + (tileY * binTilesX)].add(setupIndex);
+                }
+            }
+        }
 
-        for (int drawY = Y_START; drawY <= Y_END; drawY++) {
+        try {
+            if (depthPrepass) {
+                internalAssignPrepassIDs( );
+                binPool.invoke(new TileRasterTask(0, bins.length, RASTER_PASS_DEPTH));
+                binPool.invoke(new TileRasterTask(0, bins.length, RASTER_PASS_SHADE));
+            } else {
+                binPool.invoke(new TileRasterTask(0, bins.length, RASTER_PASS_FULL));
+            }
+        } finally {
+            for (TileBin bin : bins) {
+                bin.clear( );
+            }
+            setupTris.clear( );
+        }
 
-            float distY = Math.max(0.0f, drawY - flatTri.getPosnY(0));
-            int X_START = Math.max(
-                (int)(flatTri.getPosnX(0) + (invSlope02 * distY)),
-                0
-            );
-            int X_END   = Math.min(
-                (int)(flatTri.getPosnX(1) + (invSlope12 * distY)), 
-                renderTarget.getWidth() - 1
-            );
+    }
 
-            for (int drawX = X_START; drawX <= X_END; drawX++) {
-                internalDrawFragment(drawX, drawY, sortedTri);
+    private void internalRasterizePrepassed( ) {
+        int clipMaxX = renderTarget.getWidth( )  - 1;
+        int clipMaxY = renderTarget.getHeight( ) - 1;
+        try {
+            internalAssignPrepassIDs( );
+            for (SetupTri setup : setupTris) {
+                internalRasterizeSetupTri(setup, 0, 0, clipMaxX, clipMaxY, RASTER_PASS_DEPTH);
+            }
+            for (SetupTri setup : setupTris) {
+                internalRasterizeSetupTri(setup, 0, 0, clipMaxX, clipMaxY, RASTER_PASS_SHADE);
             }
+        } finally {
+            setupTris.clear( );
+        }
+    }
 
+    private void internalAssignPrepassIDs( ) {
+        // NOTE:
+        // - the depth pass writes each passing triangle's id to
+        //   prepassWinners, and the shading pass only shades a pixel for the
+        //   triangle whose id is there. ids keep counting up across draws, so
+        //   an id left from an earlier draw never matches and winners are
+        //   only cleared when the ids would overflow
+        // - 0 is never an id, so new winners start out empty
+        int pixels = renderTarget.getWidth( ) * renderTarget.getHeight( );
+        if (prepassWinners.length < pixels) {
+            prepassWinners = new int[pixels];
+        }
+        if (lastPrepassID > Integer.MAX_VALUE - setupTris.size( )) {
+            Arrays.fill(prepassWinners, 0);
+            lastPrepassID = 0;
         }
 
+        for (SetupTri setup : setupTris) {
+            setup.prepassID = ++lastPrepassID;
+        }
     }
 
-    private void internalFindBaryWeights(
-        int     drawX,
-        int     drawY,
-        Triangle     tri,
-        float[] out
+    private int internalMaskPrepassWinners(SetupTri setup, int dataIndex, int laneMask) {
+        // NOTE:
+        //  drops every lane of a span whose pixel was won by another triangle
+        for (int lane = 0; lane < RASTER_BLOCK_SIZE; lane++) {
+            if ((laneMask & (1 << lane)) == 0) { continue; }
+            if (prepassWinners[dataIndex + lane] != setup.prepassID) {
+                laneMask &= ~(1 << lane);
+            }
+        }
+        return laneMask;
+    }
+
+    private void internalRasterizeTile(int tileIndex, int pass) {
+        TileBin bin = bins[tileIndex];
+        if (bin.count == 0) { return; }
+
+        int tileX    = tileIndex % binTilesX;
+        int tileY    = tileIndex / binTilesX;
+        int clipMinX = tileX * binTileSize;
+        int clipMinY = tileY * binTileSize;
+        int clipMaxX = Math.min(clipMinX + binTileSize, renderTarget.getWidth( ))  - 1;
+        int clipMaxY = Math.min(clipMinY + binTileSize, renderTarget.getHeight( )) - 1;
+
+        for (int i = 0; i < bin.count; i++) {
+            internalRasterizeSetupTri(
+                setupTris.get(bin.setupIndicies[i]), 
+                clipMinX, 
+                clipMinY, 
+                clipMaxX, 
+                clipMaxY, 
+                pass
+            );
+        }
+    }
+
+    private void internalInterpolateFragmentInputs(
+        SetupTri  setup,
+        float[]   planes,
+        int       planeOffset,
+        float[][] inputsOut
     ) {
-        // refer to 
+        // NOTE:
+        //  perspective-correct value of each output is it's attribute * invZ
+        //  plane divided by the invZ plane
+        // refer to
         // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_rasterizetri.c
+        float invWSum = 1.0f / planes[planeOffset];
 
-        float p0x = tri.getPosnX(0);
-        float p0y = tri.getPosnY(0);
-        float p1x = tri.getPosnX(1);
-        float p1y = tri.getPosnY(1);
-        float p2x = tri.getPosnX(2);
-        float p2y = tri.getPosnY(2);
-        float invDenom = 
-            1.0f / 
-            (((p1y - p2y) *
-             (p0x - p2x)) +
-            ((p2x - p1x) * 
-             (p0y - p2y)));
-        float d3x = (float)drawX - p2x;
-        float d3y = (float)drawY - p2y;
-        
-        out[0] = ((p1y - p2y) * (d3x) + 
-                 (p2x - p1x) * (d3y)) * 
-                 invDenom;
-        out[0] = Math.min(1.0f, Math.max(0.0f, out[0])); // clamp
-
-        out[1] = ((p2y - p0y) * (d3x) + 
-                 (p0x - p2x) * (d3y)) * 
-                 invDenom;
-        out[1] = Math.min(1.0f, Math.max(0.0f, out[1])); // clamp
+        for (int slot = 0; slot < inputsOut.length; slot++) {
+            int offset = setup.slotOffsets[slot];
+            if (offset < 0) { continue; }
 
-        out[2] = 1.0f - out[1] - out[0];
+            float[] inputSlot = inputsOut[slot];
+            for (int comp = 0; comp < inputSlot.length; comp++) {
+                inputSlot[comp] = planes[planeOffset + offset + comp] * invWSum;
+            }
+        }
     }
 
-    private float[][] internalInterpolateFragmentInputs(
-        float[]   baryWeights,
-        Triangle  tri
+    private void internalDrawQuadRowVectorized(
+        SetupTri      setup,
+        RasterContext rctx,
+        int           blockX,
+        int           quadY,
+        int           spanStart,
+        int           spanEnd,
+        int           rowStart,
+        int           rowEnd,
+        boolean       acceptAll,
+        int           e0,
+        int           e1,
+        int           e2,
+        int           pass
     ) {
         // NOTE:
-        //  in principle, all vertex outputs/fragment inputs should be formatted
-        //  the same, so we will use v0 as a reference
-        Vertex v0 = tri.getVertex(0);
-        float[][] buffer = new float[v0.shaderOutputs.length][];
+        // - one row of quads across a raster block, i.e. the block rows quadY
+        //   and quadY + 1, where lane n of each row is pixel blockX + n.
+        //   coverage, depth and inputs are found for all lanes of a row at
+        //   once, then each surviving lane is shaded and written with a
+        //   masked store
+        // - rows outside of [rowStart, rowEnd] are never written, but are
+        //   still interpolated as the bottom or top of their quads
+        int[]   colorBuffer = renderTarget.getColorData( );
+        float[] depthBuffer = renderTarget.getDepthData( );
+        float[] rowPlanes   = rctx.rowPlanes;
+        float[] abovePlanes = rctx.abovePlanes;
+        float[] lanePlanes  = rctx.lanePlanes;
+        int[]   blockStepX  = rctx.blockStepX;
+        int[]   blockStepY  = rctx.blockStepY;
+        int     planeCount  = setup.planeCount;
+        int     rowStride   = planeCount * RASTER_BLOCK_SIZE;
+        for (int plane = 0; plane < planeCount; plane++) {
+            abovePlanes[plane] = rowPlanes[plane] + setup.planeDY[plane];
+        }
 
-        for (int slot = 0; slot < buffer.length; slot++) {
+        int[] coverMasks = rctx.rowMasks;
+        int   coverAny   = 0;
+        for (int row = 0; row < QUAD_SIZE; row++) {
+            int drawY = quadY + row;
+            coverMasks[row] = 0;
+            if (drawY < rowStart || drawY > rowEnd) { continue; }
+
+            int dataIndex = renderTarget.coordToDataIndex(blockX, drawY);
+            coverMasks[row] = VECTOR_RASTER.coverSpan(
+                e0 + row * blockStepY[0], 
+                e1 + row * blockStepY[1], 
+                e2 + row * blockStepY[2], 
+                blockStepX[0], 
+                blockStepX[1], 
+                blockStepX[2], 
+                acceptAll, 
+                spanStart - blockX, 
+                spanEnd - blockX, 
+                (row == 0) ? rowPlanes[0] : abovePlanes[0], 
+                setup.planeDX[0], 
+                DEPTH_TEST_EPSILON, 
+                pass == RASTER_PASS_SHADE, 
+                depthBuffer, 
+                dataIndex, 
+                rctx.laneDepths,
+                row * RASTER_BLOCK_SIZE
+            );
+            if (pass == RASTER_PASS_SHADE && coverMasks[row] != 0) {
+                coverMasks[row] = internalMaskPrepassWinners(setup, dataIndex, coverMasks[row]);
+            }
+            coverAny |= coverMasks[row];
+
+            if (pass == RASTER_PASS_DEPTH && coverMasks[row] != 0) {
+                VECTOR_RASTER.storeSpanDepth(
+                    rctx.laneDepths, 
+                    row * RASTER_BLOCK_SIZE, 
+                    coverMasks[row], 
+                    depthBuffer, 
+                    dataIndex
+                );
+                for (int lane = 0; lane < RASTER_BLOCK_SIZE; lane++) {
+                    if ((coverMasks[row] & (1 << lane)) != 0) {
+                        prepassWinners[dataIndex + lane] = setup.prepassID;
+                    }
+                }
+                renderTarget.markDepthDirty(blockX, drawY);
+            }
+        }
+        if (coverAny == 0 || pass == RASTER_PASS_DEPTH) { return; }
+
+        VECTOR_RASTER.interpolateSpan(rowPlanes, setup.planeDX, planeCount, lanePlanes, 0);
+        VECTOR_RASTER.interpolateSpan(abovePlanes, setup.planeDX, planeCount, lanePlanes, rowStride);
+
+        float[][] inputs = rctx.fctx.inputsFromVertexShader;
+        float[][] ddx    = rctx.inputDdx;
+        float[][] ddy    = rctx.inputDdy;
+        for (int row = 0; row < QUAD_SIZE; row++) {
+            int coverMask = coverMasks[row];
+            if (coverMask == 0) { continue; }
+
+            int drawY     = quadY + row;
+            int dataIndex = renderTarget.coordToDataIndex(blockX, drawY);
+            int writeMask = 0;
+            int lastQuad  = -1;
+            for (int lane = 0; lane < RASTER_BLOCK_SIZE; lane++) {
+                if ((coverMask & (1 << lane)) == 0) { continue; }
+
+                // the quad's derivatives are taken from it's first lane and row
+                int quadLane = lane & ~1;
+                if (quadLane != lastQuad) {
+                    internalFindLaneDerivatives(setup, lanePlanes, quadLane, rowStride, ddx, ddy);
+                    lastQuad = quadLane;
+                }
+                for (int slot = 0; slot < inputs.length; slot++) {
+                    int offset = setup.slotOffsets[slot];
+                    if (offset < 0) { continue; }
+
+                    float[] inputSlot = inputs[slot];
+                    int     laneBase  = row * rowStride + offset * RASTER_BLOCK_SIZE + lane;
+                    for (int comp = 0; comp < inputSlot.length; comp++) {
+                        inputSlot[comp] = lanePlanes[laneBase + comp * RASTER_BLOCK_SIZE];
+                    }
+                }
 
-            float[] outputSlot = v0.shaderOutputs[slot];
-            if (outputSlot == null) { continue; }
-            buffer[slot] = new float[outputSlot.length];
+                float laneDepth = rctx.laneDepths[row * RASTER_BLOCK_SIZE + lane];
+                if (deferredDraw) {
+                    internalWriteGBuffer(dataIndex + lane, rctx.fctx);
+                    writeMask |= (1 << lane);
+                    continue;
+                }
 
-            // NOTE:
-            //  do a perspective-correct interpolation of each vertex output
-            float[] output0 = tri.getVertex(0).shaderOutputs[slot];
-            float[] output1 = tri.getVertex(1).shaderOutputs[slot];
-            float[] output2 = tri.getVertex(2).shaderOutputs[slot];
+                int fragARGB = internalShadeFragment(
+                    blockX + lane, 
+                    drawY, 
+                    setup, 
+                    laneDepth, 
+                    rctx.fctx
+                );
+                if ((fragARGB & COL_BMASK_A) == 0) { continue; }
 
-            // refer to
-            // https://github.com/SuJiaTao/Caesium/blob/master/csmint_pl_rasterizetri.c
-            int compCount = outputSlot.length;
-            float w0      = tri.getPosnZ(0) * baryWeights[0];
-            float w1      = tri.getPosnZ(1) * baryWeights[1];
-            float w2      = tri.getPosnZ(2) * baryWeights[2];
-            float invWSum = 1.0f / (w0 + w1 + w2);  
-            for (int comp = 0; comp < compCount; comp++) {
-                buffer[slot][comp] =
-                    (w0 * output0[comp] +
-                     w1 * output1[comp] + 
-                     w2 * output2[comp]) * invWSum;
+                rctx.laneColors[lane] = QShader.blendColor(colorBuffer[dataIndex + lane], fragARGB);
+                writeMask |= (1 << lane);
             }
-        }
 
-        return buffer;
+            if (writeMask == 0) { continue; }
+
+            if (!deferredDraw) {
+                VECTOR_RASTER.storeSpanColor(rctx.laneColors, writeMask, colorBuffer, dataIndex);
+                if (drawGBuffer != null) {
+                    int[] materials = drawGBuffer.getMaterialData( );
+                    for (int lane = 0; lane < RASTER_BLOCK_SIZE; lane++) {
+                        if ((writeMask & (1 << lane)) != 0) {
+                            materials[dataIndex + lane] = QGBuffer.NO_MATERIAL;
+                        }
+                    }
+                }
+            }
+            if (pass == RASTER_PASS_FULL) {
+                VECTOR_RASTER.storeSpanDepth(
+                    rctx.laneDepths, 
+                    row * RASTER_BLOCK_SIZE, 
+                    writeMask, 
+                    depthBuffer, 
+                    dataIndex
+                );
+                renderTarget.markDepthDirty(blockX, drawY);
+            }
+        }
     }
 
-    private void internalDrawFragment(
-        int drawX, 
-        int drawY,
-        Triangle triangle
+    private void internalDrawQuad(
+        int           quadX,
+        int           quadY,
+        int           quadLane,
+        int           quadMask,
+        SetupTri      setup,
+        RasterContext rctx,
+        int           pass
     ) {
 
-        float[] weights = new float[VERTS_PER_TRI];
-        internalFindBaryWeights(drawX, drawY, triangle, weights);
-
-        float invDepth = 
-            triangle.getPosnZ(0) * weights[0] + 
-            triangle.getPosnZ(1) * weights[1] +
-            triangle.getPosnZ(2) * weights[2];
+        // NOTE:
+        // - quad pixel n is at (quadX + (n & 1), quadY + (n >> 1)), and it's
+        //   planes are stored at n * planeCount in quadPlanes. only pixels in
+        //   quadMask may be written
+        // - quadLane is quadX's offset into it's block row. planes are found
+        //   from rctx's row planes the same way QSpanRaster finds them
+        int     planeCount = setup.planeCount;
+        float[] quadPlanes = rctx.quadPlanes;
+        for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+            float   lane   = (float)(quadLane + (quadPixel & 1));
+            float[] planes = ((quadPixel >> 1) == 0) ? rctx.rowPlanes : rctx.abovePlanes;
+            int     base   = quadPixel * planeCount;
+            for (int plane = 0; plane < planeCount; plane++) {
+                quadPlanes[base + plane] = lane * setup.planeDX[plane] + planes[plane];
+            }
+        }
 
         // NOTE:
         // since all depths are negative and inverted, the further value
         // will be a smaller negative and hence greater. therefore the failing
-        // depth test will be greater than the previous depth
-        if (invDepth > renderTarget.getDepth(drawX, drawY) - DEPTH_TEST_EPSILON) {
+        // depth test will be greater than the previous depth. the shading
+        // pass instead only accepts the triangle which won the depth pass
+        int passMask = 0;
+        for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+            if ((quadMask & (1 << quadPixel)) == 0) { continue; }
+
+            int   drawX     = quadX + (quadPixel & 1);
+            int   drawY     = quadY + (quadPixel >> 1);
+            int   dataIndex = renderTarget.coordToDataIndex(drawX, drawY);
+            float invDepth  = quadPlanes[quadPixel * planeCount];
+            if (pass == RASTER_PASS_SHADE) {
+                if (prepassWinners[dataIndex] != setup.prepassID) { continue; }
+            } else if (invDepth > renderTarget.getDepth(drawX, drawY) - DEPTH_TEST_EPSILON) {
+                continue;
+            }
+
+            if (pass == RASTER_PASS_DEPTH) {
+                renderTarget.setDepth(drawX, drawY, invDepth);
+                prepassWinners[dataIndex] = setup.prepassID;
+                continue;
+            }
+            passMask |= (1 << quadPixel);
+        }
+        if (passMask == 0) { return; }
+
+        // NOTE:
+        //  the derivatives only need the quad's first column and row, so the
+        //  last pixel is only interpolated when it is drawn
+        float[][][] quadInputs = rctx.quadInputs;
+        for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+            if (quadPixel == QUAD_PIXELS - 1 && (passMask & (1 << quadPixel)) == 0) { continue; }
+            internalInterpolateFragmentInputs(
+                setup, 
+                quadPlanes, 
+                quadPixel * planeCount, 
+                quadInputs[quadPixel]
+            );
+        }
+        internalFindQuadDerivatives(setup, quadInputs, rctx.inputDdx, rctx.inputDdy);
+
+        QShader.FragmentShaderContext fctx = rctx.fctx;
+        for (int quadPixel = 0; quadPixel < QUAD_PIXELS; quadPixel++) {
+            if ((passMask & (1 << quadPixel)) == 0) { continue; }
+
+            fctx.inputsFromVertexShader = quadInputs[quadPixel];
+            internalWriteFragment(
+                quadX + (quadPixel & 1), 
+                quadY + (quadPixel >> 1), 
+                setup, 
+                quadPlanes[quadPixel * planeCount], 
+                fctx, 
+                pass
+            );
+        }
+        fctx.inputsFromVertexShader = quadInputs[0];
+    }
+
+    private void internalWriteFragment(
+        int                           drawX, 
+        int                           drawY,
+        SetupTri                      setup,
+        float                         invDepth,
+        QShader.FragmentShaderContext fctx,
+        int                           pass
+    ) {
+
+        // NOTE:
+        //  the fragment has passed the depth test, and it's inputs are
+        //  already interpolated
+        if (deferredDraw) {
+            internalWriteGBuffer(renderTarget.coordToDataIndex(drawX, drawY), fctx);
+            if (pass == RASTER_PASS_FULL) {
+                renderTarget.setDepth(drawX, drawY, invDepth);
+            }
             return;
         }
-        
-        // CALL FRAGMENT SHADER
-        QShader.FragmentShaderContext fctx = new QShader.FragmentShaderContext();
-        fctx.uniforms = slotUniforms;
-        fctx.textures = slotTextures;
-        fctx.target   = renderTarget;
-        fctx.screenX  = drawX;
-        fctx.screenY  = drawY;
-        fctx.invDepth = invDepth;
-        fctx.normal   = new QVector3(triangle.normal);
-        fctx.inputsFromVertexShader = internalInterpolateFragmentInputs(weights, triangle);
-
-        QShader shader    = internalGetRelevantShader( );
-        QColor  fragColor = shader.fragmentShader(fctx);
+
+        int fragARGB = internalShadeFragment(drawX, drawY, setup, invDepth, fctx);
 
         // DISCARD IF FRAGMENT IS TRANSPARENT
-        if ((fragColor.getA( )) == 0) {
+        if ((fragARGB & COL_BMASK_A) == 0) {
             return;
         }
 
         // BLEND FRAGMENT TO BELOW COLOR AND WRITE TO RENDERTARGET
-        QColor blendedColor = QShader.blendColor(
-            new QColor(renderTarget.getColor(drawX, drawY)), 
-            fragColor
+        int blendedColor = QShader.blendColor(
+            renderTarget.getColor(drawX, drawY), 
+            fragARGB
         );
 
-        renderTarget.setDepth(drawX, drawY, invDepth);
-        renderTarget.setColor(drawX, drawY, blendedColor.toInt());
+        if (pass == RASTER_PASS_FULL) {
+            renderTarget.setDepth(drawX, drawY, invDepth);
+        }
+        renderTarget.setColor(drawX, drawY, blendedColor);
+
+        // forward shaded pixels must not be relit by a deferred pass
+        if (drawGBuffer != null) {
+            drawGBuffer.getMaterialData( )[renderTarget.coordToDataIndex(drawX, drawY)] = 
+                QGBuffer.NO_MATERIAL;
+        }
+    }
+
+    private static void internalFindLaneDerivatives(
+        SetupTri  setup,
+        float[]   lanePlanes,
+        int       quadLane,
+        int       rowStride,
+        float[][] ddxOut,
+        float[][] ddyOut
+    ) {
+        // NOTE:
+        //  the same coarse derivatives as internalFindQuadDerivatives, for
+        //  the quad starting at quadLane of a vectorized row of quads
+        for (int slot = 0; slot < ddxOut.length; slot++) {
+            int offset = setup.slotOffsets[slot];
+            if (offset < 0) { continue; }
+
+            float[] ddxSlot = ddxOut[slot];
+            float[] ddySlot = ddyOut[slot];
+            for (int comp = 0; comp < ddxSlot.length; comp++) {
+                int   laneBase = (offset + comp) * RASTER_BLOCK_SIZE + quadLane;
+                float origin   = lanePlanes[laneBase];
+                ddxSlot[comp]  = lanePlanes[laneBase + 1] - origin;
+                ddySlot[comp]  = lanePlanes[laneBase + rowStride] - origin;
+            }
+        }
+    }
+
+    private static void internalFindQuadDerivatives(
+        SetupTri    setup,
+        float[][][] quadInputs,
+        float[][]   ddxOut,
+        float[][]   ddyOut
+    ) {
+        // NOTE:
+        //  coarse derivatives, which are shared by the whole quad. ddx is
+        //  taken along the quad's first row and ddy along it's first column
+        float[][] origin = quadInputs[0];
+        float[][] right  = quadInputs[1];
+        float[][] above  = quadInputs[QUAD_SIZE];
+        for (int slot = 0; slot < ddxOut.length; slot++) {
+            if (setup.slotOffsets[slot] < 0) { continue; }
+
+            float[] ddxSlot = ddxOut[slot];
+            float[] ddySlot = ddyOut[slot];
+            for (int comp = 0; comp < ddxSlot.length; comp++) {
+                ddxSlot[comp] = right[slot][comp] - origin[slot][comp];
+                ddySlot[comp] = above[slot][comp] - origin[slot][comp];
+            }
+        }
+    }
+
+    private void internalWriteGBuffer(int dataIndex, QShader.FragmentShaderContext fctx) {
+        // NOTE:
+        // - the normal is normalized here, exactly as MATERIAL_SHADER does
+        //   before lighting
+        // - uv derivatives are lost once the fragment is written, so the
+        //   texture's lod is found here instead of when it is sampled
+        float[][] inputs  = fctx.inputsFromVertexShader;
+        float[]   posns   = drawGBuffer.getPositionData( );
+        float[]   normals = drawGBuffer.getNormalData( );
+        float[]   uvs     = drawGBuffer.getUVData( );
+
+        int posOfst    = dataIndex * QGBuffer.POSITION_CMPS;
+        int normalOfst = dataIndex * QGBuffer.NORMAL_CMPS;
+        int uvOfst     = dataIndex * QGBuffer.UV_CMPS;
+        QMath.copy3(posOfst, posns, 0, inputs[DEFAULT_SHADER_POSITION_SLOT]);
+        QMath.copy3(normalOfst, normals, 0, inputs[DEFAULT_SHADER_NORMAL_SLOT]);
+        QMath.mult3(normalOfst, normals, 1.0f / QMath.mag3(normalOfst, normals));
+        uvs[uvOfst]     = inputs[DEFAULT_SHADER_UV_SLOT][0];
+        uvs[uvOfst + 1] = inputs[DEFAULT_SHADER_UV_SLOT][1];
+
+        float lod = 0.0f;
+        if (drawMaterial.texture != null && internalFilterUsesLOD(drawMaterial.sampleFilter)) {
+            float[] uvDdx = fctx.inputDdx[DEFAULT_SHADER_UV_SLOT];
+            float[] uvDdy = fctx.inputDdy[DEFAULT_SHADER_UV_SLOT];
+            lod = drawMaterial.texture.findLOD(uvDdx[0], uvDdx[1], uvDdy[0], uvDdy[1]);
+        }
+        drawGBuffer.getLODData( )[dataIndex] = lod;
+
+        drawGBuffer.getMaterialData( )[dataIndex] = drawMaterialID;
+    }
+
+    private void internalShadeDeferredRange(QGBuffer gBuffer, int pixelStart, int pixelEnd) {
+        int[]   colors    = renderTarget.getColorData( );
+        int[]   materials = gBuffer.getMaterialData( );
+        float[] posns     = gBuffer.getPositionData( );
+        float[] normals   = gBuffer.getNormalData( );
+        float[] uvs       = gBuffer.getUVData( );
+        float[] lods      = gBuffer.getLODData( );
+
+        int width  = renderTarget.getWidth( );
+        int height = renderTarget.getHeight( );
+        for (int pixel = pixelStart; pixel < pixelEnd; pixel++) {
+            int materialID = materials[pixel];
+            if (materialID == QGBuffer.NO_MATERIAL) { continue; }
+
+            // data index is flipped vertically from screenspace
+            QLight[] lights = internalGetLightsAt(pixel % width, height - 1 - (pixel / width));
+
+            DeferredMaterial material = deferredMaterials.get(materialID);
+            int texSampleColor = 0xFFFFFFFF;
+            if (material.texture != null) {
+                texSampleColor = material.texture.sample(
+                    uvs[pixel * QGBuffer.UV_CMPS], 
+                    uvs[pixel * QGBuffer.UV_CMPS + 1], 
+                    lods[pixel],
+                    material.sampleType,
+                    material.sampleFilter
+                );
+            }
+
+            colors[pixel] = internalShadeMaterial(
+                material.material, 
+                (lights != null) ? lights : material.lights, 
+                texSampleColor, 
+                posns, 
+                pixel * QGBuffer.POSITION_CMPS, 
+                normals, 
+                pixel * QGBuffer.NORMAL_CMPS
+            );
+            materials[pixel] = QGBuffer.NO_MATERIAL;
+        }
+    }
+
+    private QLight[] internalGetLightsAt(int screenX, int screenY) {
+        if (lightTiles == null) { return null; }
+        return lightTiles[(screenX / LIGHT_TILE_SIZE) + (screenY / LIGHT_TILE_SIZE) * lightTilesX];
+    }
+
+    private void internalEnsureLightTiles( ) {
+        if (!lightTilesDirty) { return; }
+        lightTilesDirty = false;
+
+        if (tiledLights == null) {
+            lightTiles = null;
+            return;
+        }
+
+        lightTilesX = (renderTarget.getWidth( )  + LIGHT_TILE_SIZE - 1) / LIGHT_TILE_SIZE;
+        lightTilesY = (renderTarget.getHeight( ) + LIGHT_TILE_SIZE - 1) / LIGHT_TILE_SIZE;
+
+        // NOTE:
+        //  lights are binned in two passes so every tile's array can be
+        //  allocated at it's exact size
+        int[] tileCounts = new int[lightTilesX * lightTilesY];
+        int[] lightRects = new int[tiledLights.length * 4];
+        for (int light = 0; light < tiledLights.length; light++) {
+            int rect = light * 4;
+            if (!internalFindLightTileRect(tiledLights[light], lightRects, rect)) {
+                lightRects[rect] = -1;
+                continue;
+            }
+            for (int tileY = lightRects[rect + 1]; tileY <= lightRects[rect + 3]; tileY++) {
+                for (int tileX = lightRects[rect]; tileX <= lightRects[rect + 2]; tileX++) {
+                    tileCounts[tileX + (tileY * lightTilesX)]++;
+                }
+            }
+        }
+
+        lightTiles = new QLight[tileCounts.length][];
+        for (int tile = 0; tile < tileCounts.length; tile++) {
+            lightTiles[tile] = new QLight[tileCounts[tile]];
+            tileCounts[tile] = 0;
+        }
+
+        for (int light = 0; light < tiledLights.length; light++) {
+            int rect = light * 4;
+            if (lightRects[rect] < 0) { continue; }
+            for (int tileY = lightRects[rect + 1]; tileY <= lightRects[rect + 3]; tileY++) {
+                for (int tileX = lightRects[rect]; tileX <= lightRects[rect + 2]; tileX++) {
+                    int tile = tileX + (tileY * lightTilesX);
+                    lightTiles[tile][tileCounts[tile]++] = tiledLights[light];
+                }
+            }
+        }
+    }
+
+    private boolean internalFindLightTileRect(QLight light, int[] rectOut, int offset) {
+        // NOTE:
+        // - a light's falloff is strength / dist, so it only matters within
+        //   strength / lightCullThreshold of it's position
+        // - when the sphere is entirely in front of the near plane, x / -z
+        //   over it's bounding box is extreme at the box's corners, which
+        //   gives a conservative screen rect. spheres crossing the near plane
+        //   cover the whole screen, and ones entirely behind the eye nothing
+        float[] pos    = light.position.getComponents( );
+        float   radius = light.strength / lightCullThreshold;
+        float   nearZ  = pos[VCTR_INDEX_Z] + radius;
+        float   farZ   = pos[VCTR_INDEX_Z] - radius;
+        if (farZ >= 0.0f) { return false; }
+
+        float screenMinX = 0.0f;
+        float screenMaxX = renderTarget.getWidth( ) - 1;
+        float screenMinY = 0.0f;
+        float screenMaxY = renderTarget.getHeight( ) - 1;
+        if (nearZ < nearClip) {
+            float invNear = -1.0f / nearZ;
+            float invFar  = -1.0f / farZ;
+            float minX    = pos[VCTR_INDEX_X] - radius;
+            float maxX    = pos[VCTR_INDEX_X] + radius;
+            float minY    = pos[VCTR_INDEX_Y] - radius;
+            float maxY    = pos[VCTR_INDEX_Y] + radius;
+
+            float projMinX = Math.min(Math.min(minX * invNear, minX * invFar), Math.min(maxX * invNear, maxX * invFar));
+            float projMaxX = Math.max(Math.max(minX * invNear, minX * invFar), Math.max(maxX * invNear, maxX * invFar));
+            float projMinY = Math.min(Math.min(minY * invNear, minY * invFar), Math.min(maxY * invNear, maxY * invFar));
+            float projMaxY = Math.max(Math.max(minY * invNear, minY * invFar), Math.max(maxY * invNear, maxY * invFar));
+
+            float scaleX = renderTarget.getWidth( )  / (viewRight - viewLeft);
+            float scaleY = renderTarget.getHeight( ) / (viewTop - viewBottom);
+            screenMinX = Math.max(screenMinX, (projMinX - viewLeft) * scaleX);
+            screenMaxX = Math.min(screenMaxX, (projMaxX - viewLeft) * scaleX);
+            screenMinY = Math.max(screenMinY, (projMinY - viewBottom) * scaleY);
+            screenMaxY = Math.min(screenMaxY, (projMaxY - viewBottom) * scaleY);
+            if (screenMinX > screenMaxX || screenMinY > screenMaxY) { return false; }
+        }
+
+        rectOut[offset]     = (int)screenMinX / LIGHT_TILE_SIZE;
+        rectOut[offset + 1] = (int)screenMinY / LIGHT_TILE_SIZE;
+        rectOut[offset + 2] = (int)screenMaxX / LIGHT_TILE_SIZE;
+        rectOut[offset + 3] = (int)screenMaxY / LIGHT_TILE_SIZE;
+        return true;
+    }
+
+    private int internalShadeFragment(
+        int                           drawX, 
+        int                           drawY,
+        SetupTri                      setup,
+        float                         invDepth,
+        QShader.FragmentShaderContext fctx
+    ) {
+        // CALL FRAGMENT SHADER
+        // NOTE:
+        //  the context is reused, so every per-fragment member is reset here.
+        //  inputsFromVertexShader must already be interpolated
+        fctx.screenX    = drawX;
+        fctx.screenY    = drawY;
+        fctx.invDepth   = invDepth;
+        fctx.tileLights = internalGetLightsAt(drawX, drawY);
+        fctx.normal.set(setup.normal);
+
+        return drawShader.fragmentShader(fctx).toInt( );
+    }
+
+    private int internalSampleTexture(
+        QSampleable                   tex,
+        QShader.FragmentShaderContext fctx,
+        float                         u,
+        float                         v
+    ) {
+        if (sampleFilter == SampleFilter.Nearest) {
+            if (drawSampler != null && drawSampler.getTarget( ) == tex) {
+                return drawSampler.sample(u, v);
+            }
+            return tex.sample(u, v, sampleType);
+        }
+        if (!internalFilterUsesLOD(sampleFilter)) {
+            return tex.sample(u, v, 0.0f, sampleType, sampleFilter);
+        }
+
+        float[] uvDdx = fctx.inputDdx[DEFAULT_SHADER_UV_SLOT];
+        float[] uvDdy = fctx.inputDdy[DEFAULT_SHADER_UV_SLOT];
+        float   lod   = tex.findLOD(uvDdx[0], uvDdx[1], uvDdy[0], uvDdy[1]);
+        return tex.sample(u, v, lod, sampleType, sampleFilter);
+    }
+
+    private QSampler internalBindSampler(QSampleable tex) {
+        if (tex == null) { return null; }
+        if (drawSampler != null && 
+            drawSampler.getTarget( ) == tex && 
+            drawSampler.getSampleType( ) == sampleType) {
+            return drawSampler;
+        }
+        return QSampler.bind(tex, sampleType);
+    }
+
+    private static boolean internalFilterUsesLOD(SampleFilter filter) {
+        return filter == SampleFilter.NearestMip || filter == SampleFilter.Trilinear;
+    }
+
+    private static QSpanRaster internalLoadVectorRaster( ) {
+        // NOTE:
+        //  QVectorRaster is in src-vector and is only there when it was built
+        //  with --add-modules jdk.incubator.vector. it can only be loaded when
+        //  the module is also resolved at runtime, so it's found by name and
+        //  any failure just means the scalar path is used
+        try {
+            QSpanRaster raster = (QSpanRaster)Class
+                .forName("QDraw.QVectorRaster")
+                .getDeclaredConstructor( )
+                .newInstance( );
+            return raster.isSupported( ) ? raster : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
     }
 
     /////////////////////////////////////////////////////////////////
@@ -8,6 +8,13 @@ import QDraw.QColor.Channel;
 import QDraw.QException.PointOfError;
 
 public final class Expects {
+
+    // render paths for RenderCrossedQuads, which can be combined
+    private static final int PATH_FORWARD    = 0;
+    private static final int PATH_VECTORIZED = 1 << 0;
+    private static final int PATH_BINNED     = 1 << 1;
+    private static final int PATH_PREPASS    = 1 << 2;
+    private static final int PATH_DEFERRED   = 1 << 3;
     
     private static void Expect(float[] val, float[] expected) {
         if (!(Arrays.equals(val, expected))) {
@@ -20,6 +27,17 @@ public final class Expects {
         }
     }
 
+    private static void Expect(int[] val, int[] expected) {
+        if (!(Arrays.equals(val, expected))) {
+            throw new QException(
+                PointOfError.BadState,
+                String.format("value \n%s\n differs from expected \n%s",
+                Arrays.toString(val),
+                Arrays.toString(expected)
+            ));
+        }
+    }
+
     private static void Expect(Object val, Object expected) {
         if (!(expected.equals(val) && val.equals(expected))) {
             throw new QException(
@@ -114,6 +132,52 @@ public final class Expects {
             new QRenderBuffer(5, 7).getDepthData().length,
             5 * 7
         );
+        Expect(
+            new QRenderBuffer(17, 8).getDepthTilesX(),
+            3
+        );
+        Expect(
+            new QRenderBuffer(17, 8).getDepthTilesY(),
+            1
+        );
+
+        QRenderBuffer depthTiles = new QRenderBuffer(16, 16);
+        depthTiles.setDepth(9, 3, -2.0f);
+        Expect(
+            depthTiles.getDepthTileMin(1, 0),
+            -2.0f
+        );
+        Expect(
+            depthTiles.getDepthTileMax(1, 0),
+            0.0f
+        );
+        Expect(
+            depthTiles.getDepthTileMin(0, 0),
+            0.0f
+        );
+        depthTiles.clearDepthBuffer( );
+        Expect(
+            depthTiles.getDepthTileMin(1, 0),
+            0.0f
+        );
+
+        QRenderBuffer gBufferTarget = new QRenderBuffer(10, 5);
+        Expect(
+            gBufferTarget.getGBuffer( ) == null,
+            true
+        );
+        Expect(
+            gBufferTarget.attachGBuffer( ) == gBufferTarget.attachGBuffer( ),
+            true
+        );
+        Expect(
+            gBufferTarget.getGBuffer( ).getMaterialData( ).length,
+            10 * 5
+        );
+        Expect(
+            gBufferTarget.getGBuffer( ).getMaterialData( )[0],
+            QGBuffer.NO_MATERIAL
+        );
     }
 
     private static void VectorTest( ) {
@@ -306,6 +370,468 @@ public final class Expects {
         );
     }
 
+    private static void MeshTest( ) {
+        QMesh tri = new QMesh(
+            new float[] { 0.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f },
+            new float[] { 0.0f, 0.0f },
+            new float[] { 0.0f, 0.0f, 1.0f },
+            new int[][] { { 0, 0, 0, 1, 0, 0, 2, 0, 0 } }
+        );
+        Expect(
+            tri.getFacePlanes( ),
+            new float[] { 0.0f, 0.0f, 1.0f, 1.0f }
+        );
+        Expect(
+            new QMesh(tri).getFacePlanes( ),
+            tri.getFacePlanes( )
+        );
+        Expect(tri.getBoundsMin( ), new float[] { 0.0f, 0.0f, 1.0f });
+        Expect(tri.getBoundsMax( ), new float[] { 1.0f, 1.0f, 1.0f });
+        Expect(tri.getBoundingCenter( ), new float[] { 0.5f, 0.5f, 1.0f });
+        Expect(tri.getBoundingRadius( ), (float)Math.sqrt(0.5f));
+
+        tri.buildClusters( );
+        Expect(tri.getClusterCount( ), 1);
+        Expect(tri.getClusterTris( )[0], 0);
+        Expect(
+            tri.getClusterBounds( ),
+            new float[] { 0.5f, 0.5f, 1.0f, (float)Math.sqrt(0.5f), 0.0f, 0.0f, 1.0f, 0.0f }
+        );
+    }
+
+    private static QMesh BuildSphereBand(int rings, int segments) {
+        // NOTE:
+        //  a unit sphere without it's caps, so no triangle is degenerate.
+        //  normals are the positions and uvs are the grid coords
+        int     vertCount = (rings + 1) * segments;
+        float[] posns     = new float[vertCount * 3];
+        float[] uvs       = new float[vertCount * 2];
+        for (int ring = 0; ring <= rings; ring++) {
+            double lat = Math.toRadians(-75.0 + 150.0 * ring / rings);
+            for (int seg = 0; seg < segments; seg++) {
+                double lon  = 2.0 * Math.PI * seg / segments;
+                int    vert = ring * segments + seg;
+                posns[vert * 3 + 0] = (float)(Math.cos(lat) * Math.cos(lon));
+                posns[vert * 3 + 1] = (float)Math.sin(lat);
+                posns[vert * 3 + 2] = (float)(Math.cos(lat) * Math.sin(lon));
+                uvs[vert * 2 + 0]   = (float)seg / segments;
+                uvs[vert * 2 + 1]   = (float)ring / rings;
+            }
+        }
+
+        int[][] faces = new int[rings * segments * 2][];
+        int     face  = 0;
+        for (int ring = 0; ring < rings; ring++) {
+            for (int seg = 0; seg < segments; seg++) {
+                int v00 = ring * segments + seg;
+                int v01 = ring * segments + (seg + 1) % segments;
+                int v10 = v00 + segments;
+                int v11 = v01 + segments;
+                faces[face++] = new int[] { v00, v00, v00, v10, v10, v10, v11, v11, v11 };
+                faces[face++] = new int[] { v00, v00, v00, v11, v11, v11, v01, v01, v01 };
+            }
+        }
+        return new QMesh(posns, uvs, posns, faces);
+    }
+
+    private static QRenderBuffer RenderSphereBand(QMesh sphere, QViewer.RenderMode mode, boolean cull) {
+        QRenderBuffer target = new QRenderBuffer(48, 32);
+        QViewer       viewer = new QViewer(target, 1.5f);
+        viewer.setRenderMode(mode);
+        viewer.setClusterCulling(cull);
+        viewer.setTexture(new QTexture(16, 16, (color, x, y) -> 0xFF000000 | (x * 0x0F1E2D) ^ (y * 0x2D1E0F)));
+        viewer.setLights(new QLight[] { new QLight(new QVector3(1.0f, 1.0f, 1.0f), 2.0f) });
+        viewer.setUniformSlot(
+            QViewer.DEFAULT_SHADER_MATERIAL_SLOT, 
+            new QMaterial(QColor.White( ), QColor.White( ), QColor.White( ), 4.0f)
+        );
+        viewer.setMatrix(QMatrix4x4.TRS(
+            new QVector3(3.2f, 0.3f, -2.5f), 
+            new QVector3(0.4f, 0.3f, 0.0f), 
+            QVector3.One( )
+        ));
+        viewer.drawMesh(sphere);
+        return target;
+    }
+
+    private static void ClusterCullTest( ) {
+        // NOTE:
+        //  the sphere hangs off the right of the screen and has clusters
+        //  facing every way, so both the frustum and the cone cull clusters.
+        //  culled clusters must only ever be ones which draw nothing
+        QMesh sphere = BuildSphereBand(12, 24);
+        sphere.buildClusters(8);
+        Expect(sphere.getClusterCount( ), 12 * 24 * 2 / 8);
+
+        QViewer.RenderMode[] modes = new QViewer.RenderMode[] {
+            QViewer.RenderMode.SolidFill,
+            QViewer.RenderMode.Textured,
+            QViewer.RenderMode.Material
+        };
+        for (QViewer.RenderMode mode : modes) {
+            QRenderBuffer unculled = RenderSphereBand(sphere, mode, false);
+            QRenderBuffer culled   = RenderSphereBand(sphere, mode, true);
+            Expect(culled.getColorData( ), unculled.getColorData( ));
+            Expect(culled.getDepthData( ), unculled.getDepthData( ));
+        }
+    }
+
+    private static void MipmapTest( ) {
+        QTexture tex = new QTexture(4, 2, (color, x, y) -> ((x & 1) == 0) ? 0xFF000000 : 0xFF0000FF);
+        Expect(tex.hasMipmaps( ), false);
+        Expect(tex.getMipLevelCount( ), 1);
+
+        tex.buildMipmaps( );
+        Expect(tex.getMipLevelCount( ), 3);
+        Expect(tex.getMipLevel(1).getWidth( ), 2);
+        Expect(tex.getMipLevel(1).getHeight( ), 1);
+        Expect(tex.getMipLevel(2).getColor(0, 0), 0xFF000080);
+
+        // one texel per pixel is level 0, four texels per pixel is level 2
+        Expect(tex.findLOD(0.25f, 0.0f, 0.0f, 0.5f), 0.0f);
+        Expect(Math.abs(tex.findLOD(1.0f, 0.0f, 0.0f, 0.0f) - 2.0f) < 0.01f, true);
+        Expect(tex.findLOD(Float.NaN, 0.0f, 0.0f, 0.0f), 0.0f);
+        Expect(
+            tex.sample(0.1f, 0.5f, 2.0f, QSampleable.SampleType.Clamp, QSampleable.SampleFilter.NearestMip),
+            0xFF000080
+        );
+    }
+
+    private static void TextureLayoutTest( ) {
+        Expect(new QTexture(512, 512).getChunkSize( ), QTexture.DEFAULT_CHUNK_SIZE);
+        Expect(
+            new QTexture(512, 512, QTexture.TextureLayout.Chunked, QTexture.MAX_CHUNK_SIZE).getChunkSize( ), 
+            QTexture.MAX_CHUNK_SIZE
+        );
+
+        // every layout and chunk size must hold the same texels, including
+        // sizes which don't fill a whole chunk or morton square
+        QSampleable.ColorMapSpacialFunction pattern = (color, x, y) -> (x * 37) ^ (y << 16);
+        QTexture source = new QTexture(37, 11, pattern);
+        QTexture[] others = new QTexture[] {
+            new QTexture(37, 11, QTexture.TextureLayout.Linear),
+            new QTexture(37, 11, QTexture.TextureLayout.Chunked, 4),
+            new QTexture(37, 11, QTexture.TextureLayout.Chunked, 64),
+            new QTexture(37, 11, QTexture.TextureLayout.Morton)
+        };
+        for (QTexture other : others) {
+            source.copyTo(other);
+            QTexture copy = new QTexture(other);
+            Expect(copy.getLayout( ), other.getLayout( ));
+            for (int x = 0; x < 37; x++) {
+                for (int y = 0; y < 11; y++) {
+                    Expect(copy.getColor(x, y), source.getColor(x, y));
+                }
+            }
+        }
+        Expect(others[2].getChunkSize( ), 64);
+    }
+
+    private static void BilinearTest( ) {
+        QTexture tex = new QTexture(4, 2, (color, x, y) -> ((x & 1) == 0) ? 0xFF000000 : 0xFF0000FF);
+        Expect(
+            tex.sample(0.25f, 0.25f, 0.0f, QSampleable.SampleType.Clamp, QSampleable.SampleFilter.Bilinear),
+            0xFF00007F
+        );
+        Expect(tex.sampleBilinear(0.125f, 0.25f, QSampleable.SampleType.Clamp), 0xFF000000);
+
+        // textures fetch their footprint by layout, which must match the
+        // plain per texel fetch, including across chunk edges and wraps
+        QSampleable.ColorMapSpacialFunction pattern = (color, x, y) -> (x * 0x01F3A7) ^ (y * 0x3C05D1);
+        QRenderBuffer reference = new QRenderBuffer(37, 11);
+        reference.mapColorSpacial(pattern);
+        for (QTexture.TextureLayout layout : QTexture.TextureLayout.values( )) {
+            QTexture other = new QTexture(37, 11, layout);
+            other.mapColorSpacial(pattern);
+            for (QSampleable.SampleType type : QSampleable.SampleType.values( )) {
+                for (float u = -0.1f; u < 1.1f; u += 0.0123f) {
+                    for (float v = -0.1f; v < 1.1f; v += 0.0371f) {
+                        Expect(other.sampleBilinear(u, v, type), reference.sampleBilinear(u, v, type));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void SamplerTest( ) {
+        // a sampler must sample exactly like the sampleable it's bound to
+        QSampleable.ColorMapSpacialFunction pattern = (color, x, y) -> (x * 0x01F3A7) ^ (y * 0x3C05D1);
+        QRenderBuffer buffer = new QRenderBuffer(37, 11);
+        buffer.mapColorSpacial(pattern);
+        QSampleable[] targets = new QSampleable[] {
+            buffer,
+            new QTexture(37, 11, pattern),
+            new QTexture(37, 11, QTexture.TextureLayout.Morton),
+            new QTexture(new QTexture(37, 11, pattern), QTexture.TextureFormat.BC1)
+        };
+        targets[2].mapColorSpacial(pattern);
+        for (QSampleable target : targets) {
+            for (QSampleable.SampleType type : QSampleable.SampleType.values( )) {
+                QSampler sampler = QSampler.bind(target, type);
+                for (float u = -1.1f; u < 1.1f; u += 0.0123f) {
+                    for (float v = -1.1f; v < 1.1f; v += 0.0371f) {
+                        Expect(sampler.sample(u, v), target.sample(u, v, type));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void TextureFormatTest( ) {
+        // few enough colors are paletted exactly, in any layout
+        QTexture board = QTexture.CheckerBoard(13);
+        for (QTexture.TextureLayout layout : QTexture.TextureLayout.values( )) {
+            QTexture source = new QTexture(13, 13, layout);
+            board.copyTo(source);
+            QTexture paletted = new QTexture(source, QTexture.TextureFormat.Paletted);
+            Expect(paletted.getFormat( ), QTexture.TextureFormat.Paletted);
+            Expect(paletted.getPaletteSize( ), 2);
+            Expect(paletted.getColorBuffer( ) == null, true);
+            for (int x = 0; x < 13; x++) {
+                for (int y = 0; y < 13; y++) {
+                    Expect(paletted.getColor(x, y), board.getColor(x, y));
+                }
+            }
+        }
+
+        // too many colors are median cut down to a full palette
+        QTexture noise = new QTexture(64, 64, (color, x, y) -> 0xFF000000 | (x * 0x0407) ^ (y * 0x040C00));
+        QTexture quantized = new QTexture(noise, QTexture.TextureFormat.Paletted);
+        Expect(quantized.getPaletteSize( ), QTexture.MAX_PALETTE_SIZE);
+        Expect(new QTexture(quantized).getColor(5, 9) >>> 24, 0xFF);
+
+        // 2 colors exact in RGB565 are stored exactly in BC1, and texels
+        // below half alpha use the transparent color, including in the
+        // partial blocks past 4 x 4
+        QTexture source = new QTexture(6, 5, (color, x, y) -> {
+            if (x == 5 && y == 4) { return 0x00FFFFFF; }
+            return ((x + y) & 1) == 0 ? 0xFFFF0000 : 0xFF0000FF;
+        });
+        QTexture bc1 = new QTexture(source, QTexture.TextureFormat.BC1);
+        Expect(bc1.getFormat( ), QTexture.TextureFormat.BC1);
+        for (int x = 0; x < 6; x++) {
+            for (int y = 0; y < 5; y++) {
+                int expected = (x == 5 && y == 4) ? 0x00000000 : source.getColor(x, y);
+                Expect(bc1.getColor(x, y), expected);
+            }
+        }
+
+        boolean threw = false;
+        try {
+            bc1.setColor(0, 0, 0);
+        } catch (QException e) {
+            threw = true;
+        }
+        Expect(threw, true);
+
+        QTexture decoded = new QTexture(bc1);
+        Expect(decoded.getFormat( ), QTexture.TextureFormat.ARGB);
+        Expect(decoded.getColor(1, 0), 0xFF0000FF);
+
+        bc1.buildMipmaps( );
+        Expect(bc1.getMipLevel(1).getFormat( ), QTexture.TextureFormat.BC1);
+    }
+
+    private static int CountCovered(QMesh mesh, boolean vectorize) {
+        QRenderBuffer target = new QRenderBuffer(32, 20);
+        QViewer       viewer = new QViewer(target, 1.6f);
+        viewer.setRenderMode(QViewer.RenderMode.SolidFill);
+        viewer.setVectorRasterization(vectorize);
+        viewer.setMatrix(QMatrix4x4.Identity( ));
+        viewer.drawMesh(mesh);
+
+        int covered = 0;
+        for (int color : target.getColorData( )) {
+            if (color != 0) { covered++; }
+        }
+        return covered;
+    }
+
+    private static QRenderBuffer RenderCrossedQuads(QViewer.RenderMode mode, int paths) {
+        // NOTE:
+        //  two quads leaning in opposite directions, which cross half way
+        //  into the screen. uvs repeat and normals differ per vertex, so
+        //  every input varies with perspective across both quads
+        float[] posns = new float[] {
+            -1.0f, -0.8f, -1.2f,
+             1.0f, -0.8f, -3.0f,
+             1.0f,  0.8f, -3.0f,
+            -1.0f,  0.8f, -1.2f,
+            -1.0f, -0.7f, -3.0f,
+             1.0f, -0.7f, -1.2f,
+             1.0f,  0.9f, -1.2f,
+            -1.0f,  0.9f, -3.0f
+        };
+        float[] uvs = new float[] {
+            0.0f, 0.0f,
+            3.0f, 0.0f,
+            3.0f, 2.0f,
+            0.0f, 2.0f
+        };
+        float[] normals = new float[] {
+             0.6f,  0.0f,  0.8f,
+             0.0f,  0.6f,  0.8f,
+            -0.6f,  0.0f,  0.8f,
+             0.0f, -0.6f,  0.8f
+        };
+        int[][] faces = new int[][] {
+            { 0, 0, 0, 1, 1, 1, 2, 2, 2 },
+            { 0, 0, 0, 2, 2, 2, 3, 3, 3 },
+            { 4, 0, 3, 5, 1, 2, 6, 2, 1 },
+            { 4, 0, 3, 6, 2, 1, 7, 3, 0 }
+        };
+
+        QRenderBuffer target = new QRenderBuffer(61, 43);
+        QViewer       viewer = new QViewer(target, 61.0f / 43.0f);
+        viewer.setRenderMode(mode);
+        viewer.setVectorRasterization((paths & PATH_VECTORIZED) != 0);
+        viewer.setBinnedRendering((paths & PATH_BINNED) != 0);
+        viewer.setBinTileSize(16);
+        viewer.setDepthPrepass((paths & PATH_PREPASS) != 0);
+        viewer.setDeferredShading((paths & PATH_DEFERRED) != 0);
+        viewer.setTexture(new QTexture(37, 11, (color, x, y) -> 0xFF000000 | (x * 0x01F3A7) ^ (y * 0x3C05D1)));
+        viewer.setMatrix(QMatrix4x4.Identity( ));
+        viewer.setLights(new QLight[] { new QLight(new QVector3(0.5f, 1.0f, 1.0f), 2.0f) });
+        viewer.setUniformSlot(
+            QViewer.DEFAULT_SHADER_MATERIAL_SLOT, 
+            new QMaterial(QColor.White( ), QColor.White( ), QColor.White( ), 4.0f)
+        );
+        viewer.drawMesh(new QMesh(posns, uvs, normals, faces));
+        viewer.shadeDeferred( );
+        return target;
+    }
+
+    private static void RasterTest( ) {
+        // NOTE:
+        //  a fan of 8 triangles covering a 12 x 12 pixel square, where every
+        //  vertex and every edge lies exactly on pixel centers. with the top
+        //  left rule each of the square's pixels belongs to exactly one
+        //  triangle, so the triangles' coverages sum to the square's area
+        float[] posns = new float[] {
+             0.05f,  0.05f, -1.0f,
+             0.65f,  0.05f, -1.0f,
+             0.65f,  0.65f, -1.0f,
+             0.05f,  0.65f, -1.0f,
+            -0.55f,  0.65f, -1.0f,
+            -0.55f,  0.05f, -1.0f,
+            -0.55f, -0.55f, -1.0f,
+             0.05f, -0.55f, -1.0f,
+             0.65f, -0.55f, -1.0f
+        };
+        float[] uvs     = new float[] { 0.0f, 0.0f };
+        float[] normals = new float[] { 0.0f, 0.0f, 1.0f };
+
+        int[][] fan = new int[8][];
+        for (int i = 0; i < fan.length; i++) {
+            fan[i] = new int[] { 0, 0, 0, 1 + i, 0, 0, 1 + ((i + 1) % 8), 0, 0 };
+        }
+
+        for (boolean vectorize : new boolean[] { false, true }) {
+            int coverageSum = 0;
+            for (int[] face : fan) {
+                coverageSum += CountCovered(
+                    new QMesh(posns, uvs, normals, new int[][] { face }),
+                    vectorize
+                );
+            }
+            Expect(coverageSum, 12 * 12);
+            Expect(CountCovered(new QMesh(posns, uvs, normals, fan), vectorize), 12 * 12);
+        }
+
+        // the vector path must give exactly the same colors and depths as
+        // the scalar path, not just the same coverage
+        QViewer.RenderMode[] modes = new QViewer.RenderMode[] {
+            QViewer.RenderMode.Textured,
+            QViewer.RenderMode.Normal,
+            QViewer.RenderMode.Material
+        };
+        for (QViewer.RenderMode mode : modes) {
+            QRenderBuffer scalar = RenderCrossedQuads(mode, PATH_FORWARD);
+            QRenderBuffer vector = RenderCrossedQuads(mode, PATH_VECTORIZED);
+            Expect(vector.getColorData( ), scalar.getColorData( ));
+            Expect(vector.getDepthData( ), scalar.getDepthData( ));
+        }
+    }
+
+    private static void BinnedRasterTest( ) {
+        // NOTE:
+        //  binned rendering clips each triangle to every 16 x 16 bin it
+        //  touches, on different threads, and must give exactly the serial
+        //  colors and depths. the quads cross many bin edges
+        QViewer.RenderMode[] modes = new QViewer.RenderMode[] {
+            QViewer.RenderMode.SolidFill,
+            QViewer.RenderMode.Textured,
+            QViewer.RenderMode.Material
+        };
+        for (QViewer.RenderMode mode : modes) {
+            for (int vectorize : new int[] { PATH_FORWARD, PATH_VECTORIZED }) {
+                QRenderBuffer serial = RenderCrossedQuads(mode, vectorize);
+                QRenderBuffer binned = RenderCrossedQuads(mode, vectorize | PATH_BINNED);
+                Expect(binned.getColorData( ), serial.getColorData( ));
+                Expect(binned.getDepthData( ), serial.getDepthData( ));
+            }
+        }
+
+        // bins must be whole raster blocks
+        QViewer viewer = new QViewer(new QRenderBuffer(16, 16));
+        boolean threw  = false;
+        try {
+            viewer.setBinTileSize(20);
+        } catch (QException e) {
+            threw = true;
+        }
+        Expect(threw, true);
+    }
+
+    private static void PrepassRasterTest( ) {
+        // NOTE:
+        //  the prepass must shade exactly the fragments forward rendering
+        //  keeps, including where the quads cross and tie on depth. every
+        //  raster path is checked against forward
+        QViewer.RenderMode[] modes = new QViewer.RenderMode[] {
+            QViewer.RenderMode.SolidFill,
+            QViewer.RenderMode.Textured,
+            QViewer.RenderMode.Material
+        };
+        int[] paths = new int[] {
+            PATH_FORWARD,
+            PATH_VECTORIZED,
+            PATH_BINNED,
+            PATH_VECTORIZED | PATH_BINNED
+        };
+        for (QViewer.RenderMode mode : modes) {
+            for (int path : paths) {
+                QRenderBuffer forward = RenderCrossedQuads(mode, path);
+                QRenderBuffer prepass = RenderCrossedQuads(mode, path | PATH_PREPASS);
+                Expect(prepass.getColorData( ), forward.getColorData( ));
+                Expect(prepass.getDepthData( ), forward.getDepthData( ));
+            }
+        }
+    }
+
+    private static void DeferredRasterTest( ) {
+        // NOTE:
+        //  deferred shading lights each pixel from the G-buffer after the
+        //  draw, and must give exactly the colors and depths of lighting it
+        //  while drawing, on every raster path
+        int[] paths = new int[] {
+            PATH_FORWARD,
+            PATH_VECTORIZED,
+            PATH_BINNED,
+            PATH_PREPASS,
+            PATH_VECTORIZED | PATH_BINNED | PATH_PREPASS
+        };
+        for (int path : paths) {
+            QRenderBuffer forward  = RenderCrossedQuads(QViewer.RenderMode.Material, path);
+            QRenderBuffer deferred = RenderCrossedQuads(
+                QViewer.RenderMode.Material, 
+                path | PATH_DEFERRED
+            );
+            Expect(deferred.getColorData( ), forward.getColorData( ));
+            Expect(deferred.getDepthData( ), forward.getDepthData( ));
+        }
+    }
+
     public static void main(String[] args) {
         System.out.println("Beginning tests...");
         ColorTest( );
@@ -313,6 +839,17 @@ public final class Expects {
         VectorTest( );
         MatrixTest( );
         MathTest( );
+        MeshTest( );
+        ClusterCullTest( );
+        MipmapTest( );
+        TextureLayoutTest( );
+        BilinearTest( );
+        SamplerTest( );
+        TextureFormatTest( );
+        RasterTest( );
+        BinnedRasterTest( );
+        PrepassRasterTest( );
+        DeferredRasterTest( );
         System.out.println("All tests passed!");
     }
 }
@@ -98,7 +98,7 @@ public class FuzzShader extends QShader {
         // APPLY SIMPLE PHONG SHADING
         float ambient      = 0.4f;
         float diffuseAccum = 0.0f;
-        QLight[] lights  = (QLight[])fctx.uniforms[SHADER_LIGHTS_SLOT];
+        QLight[] lights  = getLights(fctx, SHADER_LIGHTS_SLOT);
         for (QLight light : lights) {
             QVector3 dFaceLight = QVector3.sub(
                 light.position,
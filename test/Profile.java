@@ -5,11 +5,17 @@
 import QDraw.QMatrix4x4;
 import QDraw.QMesh;
 import QDraw.QRenderBuffer;
+import QDraw.QSampleable;
+import QDraw.QSampler;
 import QDraw.QTexture;
 import QDraw.QVector3;
 import QDraw.QViewer;
 import QDraw.QWindow;
 import QDraw.QViewer.RenderMode;
+import QDraw.QTexture.TextureLayout;
+import QDraw.QTexture.TextureFormat;
+import QDraw.QSampleable.SampleFilter;
+import QDraw.QSampleable.SampleType;
 
 public final class Profile {
     public static final int WINDOW_WIDTH  = 1600;
@@ -116,6 +122,405 @@ public final class Profile {
         }
     }
 
+    public static void ProfileSerialVSBinned(
+            int iterations, 
+            String texPath,
+            String meshPath
+        ) {
+
+        QTexture tTex = new QTexture(texPath);
+        QMesh    mesh = new QMesh(meshPath);
+
+        TimerInstance serialTimer = new TimerInstance();
+        TimerInstance binnedTimer = new TimerInstance();
+
+        QMatrix4x4 tMatrix;
+
+        viewer.setTextureSlot(0, tTex);
+
+        for (int iter = 0; iter < iterations; iter++) {
+
+            System.gc();
+
+            serialTimer.reset( );
+            binnedTimer.reset( );
+            
+            long  SAMPLE_FRAME_COUNT = 500;
+            float time = 0.0f;
+
+            for (int frame = 0; frame < SAMPLE_FRAME_COUNT; frame++) {
+                
+                tMatrix = QMatrix4x4.TRS(
+                    new QVector3(0, 0, -7.0f), 
+                    new QVector3(time * 0.1f, time, 0.0f), 
+                    QVector3.One()
+                );
+
+                // PROFILE SERIAL
+                viewer.clearFrame( );
+                viewer.setBinnedRendering(false);
+                viewer.setTextureSlot(0, tTex);
+
+                serialTimer.beginTime();
+                viewer.setMatrix(tMatrix);
+                viewer.drawMesh(mesh);
+                serialTimer.endTime();
+
+                window.updateFrame( );
+
+                // PROFILE BINNED
+                viewer.clearFrame( );
+                viewer.setBinnedRendering(true);
+                viewer.setTextureSlot(0, tTex);
+
+                binnedTimer.beginTime();
+                viewer.setMatrix(tMatrix);
+                viewer.drawMesh(mesh);
+                binnedTimer.endTime();
+
+                window.updateFrame( );
+
+                time += 6.0f;
+            }
+
+            System.out.println("\tSERIALAVG: " + serialTimer.avgTime());
+            System.out.println("\tBINNEDAVG: " + binnedTimer.avgTime());
+            System.out.println("\tRATIO:     " + 
+                (float)binnedTimer.avgTime() / (float)serialTimer.avgTime());
+        }
+
+        viewer.setBinnedRendering(false);
+    }
+
+    public static void ProfileScalarVSVector(
+            int iterations, 
+            String texPath,
+            String meshPath
+        ) {
+
+        if (!QViewer.isVectorRasterizationAvailable( )) {
+            System.out.println("\tSKIPPED: build src-vector and run with --add-modules jdk.incubator.vector");
+            return;
+        }
+
+        QTexture tTex = new QTexture(texPath);
+        QMesh    mesh = new QMesh(meshPath);
+
+        TimerInstance scalarTimer = new TimerInstance();
+        TimerInstance vectorTimer = new TimerInstance();
+
+        QMatrix4x4 tMatrix;
+
+        viewer.setTextureSlot(0, tTex);
+
+        for (int iter = 0; iter < iterations; iter++) {
+
+            System.gc();
+
+            scalarTimer.reset( );
+            vectorTimer.reset( );
+            
+            long  SAMPLE_FRAME_COUNT = 500;
+            float time = 0.0f;
+
+            for (int frame = 0; frame < SAMPLE_FRAME_COUNT; frame++) {
+                
+                tMatrix = QMatrix4x4.TRS(
+                    new QVector3(0, 0, -7.0f), 
+                    new QVector3(time * 0.1f, time, 0.0f), 
+                    QVector3.One()
+                );
+
+                // PROFILE SCALAR
+                viewer.clearFrame( );
+                viewer.setVectorRasterization(false);
+                viewer.setTextureSlot(0, tTex);
+
+                scalarTimer.beginTime();
+                viewer.setMatrix(tMatrix);
+                viewer.drawMesh(mesh);
+                scalarTimer.endTime();
+
+                window.updateFrame( );
+
+                // PROFILE VECTOR
+                viewer.clearFrame( );
+                viewer.setVectorRasterization(true);
+                viewer.setTextureSlot(0, tTex);
+
+                vectorTimer.beginTime();
+                viewer.setMatrix(tMatrix);
+                viewer.drawMesh(mesh);
+                vectorTimer.endTime();
+
+                window.updateFrame( );
+
+                time += 6.0f;
+            }
+
+            System.out.println("\tSCALARAVG: " + scalarTimer.avgTime());
+            System.out.println("\tVECTORAVG: " + vectorTimer.avgTime());
+            System.out.println("\tRATIO:     " + 
+                (float)vectorTimer.avgTime() / (float)scalarTimer.avgTime());
+        }
+
+        viewer.setVectorRasterization(false);
+    }
+
+    public static void ProfileSampleFilters(
+            int iterations, 
+            String texPath,
+            String meshPath
+        ) {
+
+        QTexture tTex = new QTexture(texPath, true);
+        QMesh    mesh = new QMesh(meshPath);
+
+        SampleFilter[]  filters = SampleFilter.values( );
+        TimerInstance[] timers  = new TimerInstance[filters.length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new TimerInstance();
+        }
+
+        QMatrix4x4 tMatrix;
+
+        for (int iter = 0; iter < iterations; iter++) {
+
+            System.gc();
+
+            for (TimerInstance timer : timers) {
+                timer.reset( );
+            }
+            
+            long  SAMPLE_FRAME_COUNT = 500;
+            float time = 0.0f;
+
+            for (int frame = 0; frame < SAMPLE_FRAME_COUNT; frame++) {
+                
+                // NOTE:
+                //  the mesh is kept far away, so that the whole texture is
+                //  minified onto only a few pixels
+                tMatrix = QMatrix4x4.TRS(
+                    new QVector3(0, 0, -20.0f), 
+                    new QVector3(time * 0.1f, time, 0.0f), 
+                    QVector3.One()
+                );
+
+                for (int i = 0; i < filters.length; i++) {
+                    viewer.clearFrame( );
+                    viewer.setSampleFilter(filters[i]);
+                    viewer.setTextureSlot(0, tTex);
+
+                    timers[i].beginTime();
+                    viewer.setMatrix(tMatrix);
+                    viewer.drawMesh(mesh);
+                    timers[i].endTime();
+
+                    window.updateFrame( );
+                }
+
+                time += 6.0f;
+            }
+
+            for (int i = 0; i < filters.length; i++) {
+                System.out.println("\t" + filters[i] + "AVG: " + timers[i].avgTime());
+            }
+        }
+
+        viewer.setSampleFilter(QViewer.DEFAULT_SAMPLE_FILTER);
+    }
+
+    public static void ProfileTextureLayouts(
+            int iterations, 
+            String texPath
+        ) {
+
+        TextureLayout[] layouts  = TextureLayout.values( );
+        QTexture[]      textures = new QTexture[layouts.length];
+        String[]        names    = new String[layouts.length];
+        for (int i = 0; i < layouts.length; i++) {
+            textures[i] = new QTexture(texPath, layouts[i], false);
+            names[i]    = layouts[i].toString( );
+        }
+
+        ProfileSpinningQuad(iterations, textures, names);
+    }
+
+    public static void ProfileChunkSizes(
+            int iterations, 
+            String texPath
+        ) {
+
+        int[] chunkSizes = new int[] { 4, 8, 16, 32, 64 };
+        QTexture[] textures = new QTexture[chunkSizes.length];
+        String[]   names    = new String[chunkSizes.length];
+        for (int i = 0; i < chunkSizes.length; i++) {
+            textures[i] = new QTexture(texPath, TextureLayout.Chunked, chunkSizes[i], false);
+            names[i]    = "CHUNK" + textures[i].getChunkSize( );
+            if (chunkSizes[i] == QTexture.DEFAULT_CHUNK_SIZE) { names[i] += "(DEFAULT)"; }
+        }
+
+        ProfileSpinningQuad(iterations, textures, names);
+    }
+
+    public static void ProfileTextureFormats(
+            int iterations, 
+            String texPath
+        ) {
+
+        QTexture        source   = new QTexture(texPath);
+        TextureFormat[] formats  = TextureFormat.values( );
+        QTexture[]      textures = new QTexture[formats.length];
+        String[]        names    = new String[formats.length];
+        for (int i = 0; i < formats.length; i++) {
+            textures[i] = new QTexture(source, formats[i]);
+            names[i]    = formats[i].toString( );
+        }
+
+        ProfileSpinningQuad(iterations, textures, names);
+    }
+
+    private static void ProfileSpinningQuad(
+            int iterations, 
+            QTexture[] textures, 
+            String[] names
+        ) {
+
+        TimerInstance[] timers = new TimerInstance[textures.length];
+        for (int i = 0; i < textures.length; i++) {
+            timers[i] = new TimerInstance();
+        }
+
+        // NOTE:
+        //  a screen filling quad which spins about the view axis, so that
+        //  each scanline walks across the texture at a different angle
+        QMesh quad = new QMesh(
+            new float[] { 
+                -1.0f, -1.0f, 0.0f, 
+                 1.0f, -1.0f, 0.0f, 
+                 1.0f,  1.0f, 0.0f, 
+                -1.0f,  1.0f, 0.0f 
+            },
+            new float[] { 0.0f, 0.0f, 1.0f, 0.0f, 1.0f, 1.0f, 0.0f, 1.0f },
+            new float[] { 0.0f, 0.0f, 1.0f },
+            new int[][] { 
+                { 0, 0, 0, 1, 1, 0, 2, 2, 0 }, 
+                { 0, 0, 0, 2, 2, 0, 3, 3, 0 } 
+            }
+        );
+
+        QMatrix4x4 tMatrix;
+
+        for (int iter = 0; iter < iterations; iter++) {
+
+            System.gc();
+
+            for (TimerInstance timer : timers) {
+                timer.reset( );
+            }
+            
+            long  SAMPLE_FRAME_COUNT = 500;
+            float time = 0.0f;
+
+            for (int frame = 0; frame < SAMPLE_FRAME_COUNT; frame++) {
+                
+                tMatrix = QMatrix4x4.TRS(
+                    new QVector3(0, 0, -1.0f), 
+                    new QVector3(0.0f, 0.0f, time), 
+                    QVector3.One().multiply3(1.5f)
+                );
+
+                for (int i = 0; i < textures.length; i++) {
+                    viewer.clearFrame( );
+                    viewer.setTextureSlot(0, textures[i]);
+
+                    timers[i].beginTime();
+                    viewer.setMatrix(tMatrix);
+                    viewer.drawMesh(quad);
+                    timers[i].endTime();
+
+                    window.updateFrame( );
+                }
+
+                time += 6.0f;
+            }
+
+            for (int i = 0; i < textures.length; i++) {
+                System.out.println("\t" + names[i] + "AVG: " + timers[i].avgTime());
+            }
+        }
+    }
+
+    public static void ProfileSamplerVSSampleable(
+            int iterations, 
+            String texPath
+        ) {
+
+        // NOTE:
+        //  every target and sample type goes through the same sample loops,
+        //  so both call sites see textures, render buffers and compressed
+        //  textures at once, like a scene using all of them as textures
+        QTexture      tTex    = new QTexture(texPath);
+        QSampleable[] targets = new QSampleable[] { 
+            tTex, 
+            tTex.toRenderBuffer( ), 
+            new QTexture(tTex, TextureFormat.BC1) 
+        };
+        SampleType[] types    = SampleType.values( );
+        QSampler[]   samplers = new QSampler[targets.length * types.length];
+        for (int i = 0; i < samplers.length; i++) {
+            samplers[i] = QSampler.bind(targets[i / types.length], types[i % types.length]);
+        }
+
+        TimerInstance sampleableTimer = new TimerInstance();
+        TimerInstance samplerTimer    = new TimerInstance();
+
+        for (int iter = 0; iter < iterations; iter++) {
+
+            System.gc();
+
+            sampleableTimer.reset( );
+            samplerTimer.reset( );
+
+            long SAMPLE_FRAME_COUNT = 100;
+            long sink = 0;
+
+            for (int frame = 0; frame < SAMPLE_FRAME_COUNT; frame++) {
+                int         bound  = frame % samplers.length;
+                QSampleable target = targets[bound / types.length];
+                SampleType  type   = types[bound % types.length];
+                float       offset = frame * 0.01f;
+
+                sampleableTimer.beginTime();
+                for (int y = 0; y < FB_HEIGHT; y++) {
+                    for (int x = 0; x < FB_WIDTH; x++) {
+                        sink += target.sample(
+                            offset + x * (1.0f / FB_HEIGHT), 
+                            y * (1.0f / FB_HEIGHT), 
+                            type
+                        );
+                    }
+                }
+                sampleableTimer.endTime();
+
+                samplerTimer.beginTime();
+                for (int y = 0; y < FB_HEIGHT; y++) {
+                    for (int x = 0; x < FB_WIDTH; x++) {
+                        sink += samplers[bound].sample(
+                            offset + x * (1.0f / FB_HEIGHT), 
+                            y * (1.0f / FB_HEIGHT)
+                        );
+                    }
+                }
+                samplerTimer.endTime();
+            }
+
+            System.out.println("\tSAMPLEABLEAVG: " + sampleableTimer.avgTime());
+            System.out.println("\tSAMPLERAVG:    " + samplerTimer.avgTime());
+            System.out.println("\tSINK:          " + sink);
+        }
+    }
+
     public static void main(String[] args) {
         window      = new QWindow("Profiling Tests", WINDOW_WIDTH, WINDOW_HEIGHT);
         frameBuffer = new QRenderBuffer(FB_WIDTH, FB_HEIGHT);
@@ -138,5 +543,21 @@ public final class Profile {
         ProfileTextureVSRenderBuffer(2, medTexPath, meshPath);
         System.out.println("PROFILE SMALL");
         ProfileTextureVSRenderBuffer(2, smallTexPath, meshPath);
+        System.out.println("PROFILE SERIAL VS BINNED");
+        ProfileSerialVSBinned(2, medTexPath, meshPath);
+        System.out.println("PROFILE SCALAR VS VECTOR");
+        ProfileScalarVSVector(2, medTexPath, meshPath);
+        System.out.println("PROFILE SAMPLE FILTERS");
+        ProfileSampleFilters(2, hugeTexPath, meshPath);
+        System.out.println("PROFILE TEXTURE LAYOUTS");
+        ProfileTextureLayouts(2, hugeTexPath);
+        System.out.println("PROFILE CHUNK SIZES HUGE");
+        ProfileChunkSizes(2, hugeTexPath);
+        System.out.println("PROFILE CHUNK SIZES MEDIUM");
+        ProfileChunkSizes(2, medTexPath);
+        System.out.println("PROFILE TEXTURE FORMATS HUGE");
+        ProfileTextureFormats(2, hugeTexPath);
+        System.out.println("PROFILE SAMPLER VS SAMPLEABLE");
+        ProfileSamplerVSSampleable(2, largeTexPath);
     }
 }